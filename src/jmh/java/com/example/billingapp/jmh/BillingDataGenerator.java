@@ -0,0 +1,55 @@
+package com.example.billingapp.jmh;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Fills an empty schema with a deterministic data set using set-based
+ * {@code insert ... select from system_range} statements, so even the 10M scale
+ * loads without going through the JPA layer.
+ *
+ * <p>For a scale of n payments there are n / 100 customers and n / 4 invoices. The
+ * first 80% of invoices receive five payments of a tenth of their amount each and are
+ * half paid; the rest are unpaid. Due dates run from three years ago to one year
+ * ahead, so most unpaid invoices are overdue. Payment dates cover the last three years.
+ */
+public final class BillingDataGenerator {
+
+    private BillingDataGenerator() {
+    }
+
+    public static void generate(JdbcTemplate jdbc, Scale scale, LocalDate today) {
+        long payments = scale.payments();
+        long customers = Math.max(1, payments / 100);
+        long invoices = Math.max(1, payments / 4);
+        long paidInvoices = Math.max(1, invoices * 4 / 5);
+        Date todayDate = Date.valueOf(today);
+        Timestamp now = Timestamp.valueOf(today.atStartOfDay());
+
+        jdbc.update("insert into customer (id, name, email, phone, created_at) "
+                + "select x, 'Customer ' || x, 'customer' || x || '@example.com', null, "
+                + "dateadd('SECOND', -mod(x * 7919, 94608000), cast(? as timestamp)) "
+                + "from system_range(1, cast(? as bigint))", now, customers);
+
+        jdbc.update("insert into invoice (id, customer_id, amount, due_date, amount_paid, status, created_at) "
+                + "select x, mod(x - 1, cast(? as bigint)) + 1, (1000 + mod(x, 9000)) * 100, "
+                + "dateadd('DAY', mod(x, 1460) - 1095, cast(? as date)), "
+                + "case when x <= cast(? as bigint) then (1000 + mod(x, 9000)) * 50 else 0 end, "
+                + "case when x <= cast(? as bigint) then 'PARTIALLY_PAID' else 'PENDING' end, "
+                + "dateadd('DAY', mod(x, 1460) - 1125, cast(? as timestamp)) "
+                + "from system_range(1, cast(? as bigint))", customers, todayDate, paidInvoices, paidInvoices, now, invoices);
+
+        jdbc.update("insert into payment (id, invoice_id, payment_date, amount, payment_method, transaction_number, created_at) "
+                + "select x, mod(x - 1, cast(? as bigint)) + 1, dateadd('DAY', -mod(x, 1095), cast(? as date)), "
+                + "(1000 + mod(mod(x - 1, cast(? as bigint)) + 1, 9000)) * 10, 'BANK', 'TXN-' || x, "
+                + "cast(? as timestamp) "
+                + "from system_range(1, cast(? as bigint))", paidInvoices, todayDate, paidInvoices, now, paidInvoices * 5);
+
+        jdbc.execute("alter sequence customer_seq restart with " + (customers + 1));
+        jdbc.execute("alter sequence invoice_seq restart with " + (invoices + 1));
+        jdbc.execute("alter sequence payment_seq restart with " + (paidInvoices * 5 + 1));
+    }
+}
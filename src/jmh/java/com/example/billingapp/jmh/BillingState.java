@@ -0,0 +1,59 @@
+package com.example.billingapp.jmh;
+
+import com.example.billingapp.BillingApplication;
+import com.example.billingapp.service.MonthlyRevenueService;
+import com.example.billingapp.service.UniqueValueFilters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Boots the application without the web layer against a private in-memory database
+ * and loads the generated data set once per trial.
+ */
+@State(Scope.Benchmark)
+public class BillingState {
+
+    @Param({"10k"})
+    public String scale;
+
+    ConfigurableApplicationContext context;
+    LocalDate today;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BillingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        // The scheduled snapshot refresh would run its queries during measurement.
+                        "billing.dashboard.snapshot.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        today = LocalDate.now();
+        BillingDataGenerator.generate(bean(JdbcTemplate.class), Scale.of(scale), today);
+        bean(MonthlyRevenueService.class).rebuild();
+        bean(UniqueValueFilters.class).reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
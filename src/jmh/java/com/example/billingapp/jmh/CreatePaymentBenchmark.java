@@ -0,0 +1,59 @@
+package com.example.billingapp.jmh;
+
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records one-cent payments round-robin against the half-paid invoices, so every call
+ * passes validation. Each call adds a payment row; the data set grows by the number of
+ * invocations, which is small next to the generated volume.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePaymentBenchmark {
+
+    private PaymentService paymentService;
+    private LocalDate today;
+    private long invoiceCount;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp(BillingState state) {
+        paymentService = state.bean(PaymentService.class);
+        today = state.today;
+        invoiceCount = Math.max(1, Scale.of(state.scale).payments() / 5);
+    }
+
+    @Benchmark
+    public Payment createPayment() {
+        long n = sequence++;
+        Invoice invoice = new Invoice();
+        invoice.setId(n % invoiceCount + 1);
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.ofMinorUnits(1));
+        payment.setPaymentDate(today);
+        payment.setTransactionNumber("JMH-" + Thread.currentThread().getId() + "-" + n);
+        return paymentService.createPayment(payment);
+    }
+}
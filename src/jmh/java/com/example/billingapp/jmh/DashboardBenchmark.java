@@ -0,0 +1,64 @@
+package com.example.billingapp.jmh;
+
+import com.example.billingapp.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardBenchmark {
+
+    private DashboardService dashboardService;
+    private LocalDate midMonthStart;
+    private LocalDate midMonthEnd;
+
+    @Setup(Level.Trial)
+    public void setUp(BillingState state) {
+        dashboardService = state.bean(DashboardService.class);
+        midMonthStart = state.today.minusYears(1).withDayOfMonth(15);
+        midMonthEnd = state.today.minusMonths(1).withDayOfMonth(10);
+    }
+
+    @Benchmark
+    public Map<String, Object> summaryAllTime() {
+        return dashboardService.getSummary(null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> summaryDateRange() {
+        return dashboardService.getSummary(midMonthStart, midMonthEnd);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> topCustomers() {
+        return dashboardService.getTopCustomers(null, null, 5);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> monthlyRevenueAllTime() {
+        return dashboardService.getMonthlyRevenue(null, null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> monthlyRevenueMidMonthRange() {
+        return dashboardService.getMonthlyRevenue(midMonthStart, midMonthEnd);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.billingapp.jmh;
+
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.enums.InvoiceStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls getStatus on a fixed mix of unpaid, overdue, partially paid and paid invoices.
+ * Needs no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceStatusBenchmark {
+
+    private Invoice[] invoices;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        invoices = new Invoice[]{
+                invoice(today.plusDays(10), "0.00"),
+                invoice(today.minusDays(10), "0.00"),
+                invoice(today.minusDays(10), "400.00"),
+                invoice(today.plusDays(10), "1000.00")
+        };
+    }
+
+    @Benchmark
+    public void getStatus(Blackhole blackhole) {
+        for (Invoice invoice : invoices) {
+            InvoiceStatus status = invoice.getStatus();
+            blackhole.consume(status);
+        }
+    }
+
+    private static Invoice invoice(LocalDate dueDate, String amountPaid) {
+        Invoice invoice = new Invoice();
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(dueDate);
+        invoice.setAmountPaid(Money.of(amountPaid));
+        return invoice;
+    }
+}
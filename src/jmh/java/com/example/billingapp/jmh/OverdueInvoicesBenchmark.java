@@ -0,0 +1,44 @@
+package com.example.billingapp.jmh;
+
+import com.example.billingapp.model.OverdueInvoiceDTO;
+import com.example.billingapp.service.InvoiceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverdueInvoicesBenchmark {
+
+    private InvoiceService invoiceService;
+
+    @Setup(Level.Trial)
+    public void setUp(BillingState state) {
+        invoiceService = state.bean(InvoiceService.class);
+    }
+
+    @Benchmark
+    public List<OverdueInvoiceDTO> allCustomers() {
+        return invoiceService.getOverdueInvoices(null, null, null);
+    }
+
+    @Benchmark
+    public List<OverdueInvoiceDTO> singleCustomer() {
+        return invoiceService.getOverdueInvoices(1L, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.billingapp.jmh;
+
+/**
+ * Data set sizes selectable with {@code -p scale=10k,1m,10m}, expressed as the number of payments.
+ */
+public enum Scale {
+    SMALL("10k", 10_000),
+    MEDIUM("1m", 1_000_000),
+    LARGE("10m", 10_000_000);
+
+    private final String label;
+    private final long payments;
+
+    Scale(String label, long payments) {
+        this.label = label;
+        this.payments = payments;
+    }
+
+    public long payments() {
+        return payments;
+    }
+
+    public static Scale of(String label) {
+        for (Scale scale : values()) {
+            if (scale.label.equalsIgnoreCase(label)) {
+                return scale;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scale " + label + ", expected 10k, 1m or 10m");
+    }
+}
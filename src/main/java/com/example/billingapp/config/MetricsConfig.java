@@ -0,0 +1,20 @@
+package com.example.billingapp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns {@code @Timed} on the services into timers tagged with class and method.
+ * Requests, repositories, the Hikari pool and Hibernate are timed by Spring Boot's
+ * own metrics auto-configuration.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.billingapp.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the JDBC statements executed through the proxied data source, and the time spent
+ * in them, for whatever unit of work started a tally on the current thread (an HTTP
+ * request, see {@code SqlStatisticsFilter}). A batch execution counts once, like a single
+ * statement: both are one round trip. Threads without a tally are not counted.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+    private static final String STARTED = SqlStatementCounter.class.getName() + ".started";
+
+    public static final class Tally {
+
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        public long statements() {
+            return statements.get();
+        }
+
+        public Duration time() {
+            return Duration.ofNanos(nanos.get());
+        }
+
+        private void add(long elapsedNanos) {
+            statements.incrementAndGet();
+            nanos.addAndGet(elapsedNanos);
+        }
+    }
+
+    /**
+     * Starts a new tally for the current thread, replacing any previous one.
+     */
+    public static Tally start() {
+        Tally tally = new Tally();
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    /**
+     * Returns the current thread's tally, or null if none was started.
+     */
+    public static Tally current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Counts the current thread's statements into a tally started on another thread, so
+     * work handed to a worker thread still counts towards the request; null detaches.
+     */
+    public static void attach(Tally tally) {
+        if (tally == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(tally);
+        }
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (CURRENT.get() != null) {
+            execInfo.addCustomValue(STARTED, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Tally tally = CURRENT.get();
+        Long started = execInfo.getCustomValue(STARTED, Long.class);
+        if (tally != null && started != null) {
+            tally.add(System.nanoTime() - started);
+        }
+    }
+}
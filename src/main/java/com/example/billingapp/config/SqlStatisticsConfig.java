@@ -0,0 +1,43 @@
+package com.example.billingapp.config;
+
+import com.example.billingapp.controller.SqlStatisticsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source in a proxy that reports every statement to a
+ * {@link SqlStatementCounter}, and counts per request with a {@link SqlStatisticsFilter}.
+ * The proxy unwraps to the Hikari pool, so pool metrics and health are unaffected.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SqlStatisticsConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatisticsFilter sqlStatisticsFilter(MeterRegistry registry,
+                                                   @Value("${billing.sql.statement-budget:25}") int statementBudget) {
+        return new SqlStatisticsFilter(registry, statementBudget);
+    }
+}
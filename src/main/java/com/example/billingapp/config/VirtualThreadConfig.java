@@ -0,0 +1,58 @@
+package com.example.billingapp.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs Tomcat request handling, the application task executor (Spring MVC async
+ * requests such as the NDJSON exports, and {@code @Async} methods) and the
+ * {@code @Scheduled} jobs on virtual threads.
+ * Enable with {@code billing.threads.virtual=true}.
+ * <p>
+ * Requests are then no longer limited by Tomcat's thread pool but by the Hikari pool,
+ * so {@code spring.datasource.hikari.maximum-pool-size} becomes the concurrency limit
+ * for anything that touches the database.
+ * <p>
+ * Code these threads run guards blocking sections with {@code ReentrantLock} rather than
+ * {@code synchronized}: on Java 21 a virtual thread that blocks inside a synchronized block
+ * stays pinned to its carrier thread.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "billing.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadFactory(virtualThreadFactory("scheduling-"));
+        return taskScheduler;
+    }
+
+    /**
+     * Creates virtual threads named with the prefix and a counter, for executors that
+     * bound their own concurrency.
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        return Thread.ofVirtual().name(namePrefix, 0).factory();
+    }
+}
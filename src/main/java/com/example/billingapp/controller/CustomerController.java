@@ -23,8 +23,10 @@ public class CustomerController {
     }
 
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<Customer>> getCustomers(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = PageResponses.DEFAULT_LIMIT) int limit) {
+        return PageResponses.ok(customerService.getCustomers(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -1,41 +1,91 @@
 package com.example.billingapp.controller;
 
+import com.example.billingapp.service.DashboardCache;
 import com.example.billingapp.service.DashboardService;
+import com.example.billingapp.service.DashboardCache.Key;
+import com.example.billingapp.service.DashboardCache.View;
+import com.example.billingapp.service.DashboardSnapshots;
+import com.example.billingapp.service.DashboardSnapshots.Snapshot;
+import com.example.billingapp.service.SingleFlight;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * All-time and current-month requests are answered from the background snapshots, with
+ * the time they were taken in the X-Snapshot-At header. Monthly revenue is the exception:
+ * it also counts payments committed after that time, up to the refresh. Other ranges, and
+ * any request with fresh=true, are computed from the database; fresh requests never share
+ * a computation with other requests.
+ */
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
+    static final String SNAPSHOT_AT_HEADER = "X-Snapshot-At";
+
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
+    private final DashboardSnapshots dashboardSnapshots;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardCache dashboardCache,
+                               DashboardSnapshots dashboardSnapshots) {
         this.dashboardService = dashboardService;
+        this.dashboardCache = dashboardCache;
+        this.dashboardSnapshots = dashboardSnapshots;
     }
 
     @GetMapping("/summary")
-    public Map<String, Object> getSummary(
+    public ResponseEntity<Map<String, Object>> getSummary(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return dashboardService.getSummary(startDate, endDate);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        return respond(startDate, endDate, fresh, Snapshot::summary,
+                () -> dashboardService.getSummary(startDate, endDate),
+                Key.of(View.SUMMARY, startDate, endDate));
     }
 
     @GetMapping("/top-customers")
-    public List<Map<String, Object>> getTopCustomers(
+    public ResponseEntity<List<Map<String, Object>>> getTopCustomers(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return dashboardService.getTopCustomers(startDate, endDate);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        // Limits above the maximum return the same rows, so they share one cache entry.
+        int count = DashboardService.topCustomerCount(limit);
+        return respond(startDate, endDate, fresh, snapshot -> snapshot.topCustomers(count),
+                () -> dashboardService.getTopCustomers(startDate, endDate, count),
+                new Key(View.TOP_CUSTOMERS, startDate, endDate, count));
     }
 
     @GetMapping("/monthly-revenue")
-    public List<Map<String, Object>> getMonthlyRevenue(
+    public ResponseEntity<List<Map<String, Object>>> getMonthlyRevenue(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return dashboardService.getMonthlyRevenue(startDate, endDate);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        return respond(startDate, endDate, fresh, Snapshot::monthlyRevenue,
+                () -> dashboardService.getMonthlyRevenue(startDate, endDate),
+                Key.of(View.MONTHLY_REVENUE, startDate, endDate));
+    }
+
+    private <T> ResponseEntity<T> respond(LocalDate startDate, LocalDate endDate, boolean fresh,
+                                          Function<Snapshot, T> fromSnapshot, Supplier<T> compute, Key key) {
+        if (fresh) {
+            return ResponseEntity.ok(SingleFlight.bypass(compute));
+        }
+        Optional<Snapshot> snapshot = dashboardSnapshots.find(startDate, endDate);
+        if (snapshot.isPresent()) {
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_AT_HEADER, snapshot.get().asOf().toString())
+                    .body(fromSnapshot.apply(snapshot.get()));
+        }
+        return ResponseEntity.ok(dashboardCache.get(key, compute));
     }
 }
@@ -3,9 +3,13 @@ package com.example.billingapp.controller;
 import com.example.billingapp.model.Invoice;
 import com.example.billingapp.model.OverdueInvoiceDTO;
 import com.example.billingapp.service.InvoiceService;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,9 +19,11 @@ import java.util.List;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final ObjectWriter exportWriter;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, ObjectMapper objectMapper) {
         this.invoiceService = invoiceService;
+        this.exportWriter = objectMapper.copy().addMixIn(Invoice.class, InvoiceRowMixin.class).writer();
     }
 
     @PostMapping
@@ -26,8 +32,20 @@ public class InvoiceController {
     }
 
     @GetMapping
-    public List<Invoice> getAllInvoices() {
-        return invoiceService.getAllInvoices();
+    public ResponseEntity<List<Invoice>> getInvoices(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = PageResponses.DEFAULT_LIMIT) int limit) {
+        return PageResponses.ok(invoiceService.getInvoices(cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices() {
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(exportWriter, out);
+            invoiceService.exportInvoices(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -48,4 +66,11 @@ public class InvoiceController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         return invoiceService.getOverdueInvoices(customerId, startDate, endDate);
     }
+
+    /**
+     * Export rows are flat; payments are exported separately from /api/payments/export.
+     */
+    @JsonIgnoreProperties("payments")
+    private abstract static class InvoiceRowMixin {
+    }
 }
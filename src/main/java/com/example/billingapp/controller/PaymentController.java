@@ -1,8 +1,13 @@
 package com.example.billingapp.controller;
 
 import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.PaymentBatchResultDTO;
 import com.example.billingapp.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -11,9 +16,11 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ObjectWriter exportWriter;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.exportWriter = objectMapper.writer();
     }
 
     @PostMapping
@@ -21,9 +28,26 @@ public class PaymentController {
         return paymentService.createPayment(payment);
     }
 
+    @PostMapping("/batch")
+    public List<PaymentBatchResultDTO> createPayments(@RequestBody List<Payment> payments) {
+        return paymentService.createPayments(payments);
+    }
+
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentService.getAllPayments();
+    public ResponseEntity<List<Payment>> getPayments(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = PageResponses.DEFAULT_LIMIT) int limit) {
+        return PageResponses.ok(paymentService.getPayments(cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments() {
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(exportWriter, out);
+            paymentService.exportPayments(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,94 @@
+package com.example.billingapp.controller;
+
+import com.example.billingapp.config.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * Tallies the SQL statements each request executes and the JDBC time they take. The
+ * totals go into the {@value #STATEMENTS_HEADER} and {@value #TIME_HEADER} response
+ * headers, the {@code billing.request.sql.statements} and {@code billing.request.sql.time}
+ * meters tagged with method and URI pattern, and a warning when a request executes more
+ * statements than the budget.
+ * <p>
+ * Response bodies are written inside the chain, so the headers of responses with a body
+ * are set by {@link SqlStatisticsHeaderAdvice} just before writing; only bodiless
+ * responses get them here. Work done after an async request is started (the NDJSON
+ * exports) runs on another thread and is not counted.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    private final MeterRegistry registry;
+    private final int statementBudget;
+
+    public SqlStatisticsFilter(MeterRegistry registry, int statementBudget) {
+        this.registry = registry;
+        this.statementBudget = statementBudget;
+    }
+
+    static void writeHeaders(SqlStatementCounter.Tally tally, BiConsumer<String, String> header) {
+        header.accept(STATEMENTS_HEADER, Long.toString(tally.statements()));
+        header.accept(TIME_HEADER, millis(tally));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Tally tally = SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.stop();
+            if (!response.isCommitted()) {
+                writeHeaders(tally, response::setHeader);
+            }
+            record(request, tally);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Tally tally) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+        DistributionSummary.builder("billing.request.sql.statements")
+                .baseUnit("statements")
+                .description("SQL statements executed per request")
+                .tags(tags)
+                .register(registry)
+                .record(tally.statements());
+        Timer.builder("billing.request.sql.time")
+                .description("JDBC time per request")
+                .tags(tags)
+                .register(registry)
+                .record(tally.time());
+
+        if (tally.statements() > statementBudget) {
+            log.warn("SQL statement budget exceeded: method={} uri={} path={} statements={} budget={} sqlTimeMs={}",
+                    request.getMethod(), uri, request.getRequestURI(), tally.statements(), statementBudget,
+                    millis(tally));
+        }
+    }
+
+    private static String millis(SqlStatementCounter.Tally tally) {
+        return String.format(Locale.ROOT, "%.3f", tally.time().toNanos() / 1_000_000.0);
+    }
+}
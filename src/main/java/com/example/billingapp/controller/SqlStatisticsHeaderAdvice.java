@@ -0,0 +1,34 @@
+package com.example.billingapp.controller;
+
+import com.example.billingapp.config.SqlStatementCounter;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets the SQL statistics headers of {@link SqlStatisticsFilter} on responses with a body,
+ * which are committed before the filter regains control.
+ */
+@ControllerAdvice
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementCounter.Tally tally = SqlStatementCounter.current();
+        if (tally != null) {
+            SqlStatisticsFilter.writeHeaders(tally, response.getHeaders()::set);
+        }
+        return body;
+    }
+}
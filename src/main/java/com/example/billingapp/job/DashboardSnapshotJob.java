@@ -0,0 +1,37 @@
+package com.example.billingapp.job;
+
+import com.example.billingapp.service.DashboardSnapshots;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the dashboard snapshots every {@code billing.dashboard.snapshot.refresh-interval},
+ * starting as soon as the application is up.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "billing.dashboard.snapshot.enabled", havingValue = "true")
+public class DashboardSnapshotJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSnapshotJob.class);
+
+    private final DashboardSnapshots dashboardSnapshots;
+
+    public DashboardSnapshotJob(DashboardSnapshots dashboardSnapshots) {
+        this.dashboardSnapshots = dashboardSnapshots;
+    }
+
+    @Scheduled(fixedDelayString = "${billing.dashboard.snapshot.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            dashboardSnapshots.refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshots; the next run tries again.
+            log.warn("Dashboard snapshot refresh failed", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.billingapp.job;
+
+import com.example.billingapp.model.InvoiceBalanceDTO;
+import com.example.billingapp.service.InvoiceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checks the stored invoice balances against the payments table on startup.
+ * Run with {@code --billing.jobs.invoice-balance.verify=true}, adding
+ * {@code --billing.jobs.invoice-balance.repair=true} to rebuild the mismatched rows.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.jobs.invoice-balance.verify", havingValue = "true")
+public class InvoiceBalanceVerificationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceBalanceVerificationJob.class);
+
+    private final InvoiceService invoiceService;
+    private final boolean repair;
+
+    public InvoiceBalanceVerificationJob(InvoiceService invoiceService,
+                                         @Value("${billing.jobs.invoice-balance.repair:false}") boolean repair) {
+        this.invoiceService = invoiceService;
+        this.repair = repair;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<InvoiceBalanceDTO> mismatches = invoiceService.verifyBalances(repair);
+        for (InvoiceBalanceDTO mismatch : mismatches) {
+            log.warn("Invoice {} stored amountPaid={} status={} but payments total {}",
+                    mismatch.getInvoiceId(), mismatch.getStoredAmountPaid(),
+                    mismatch.getStoredStatus(), mismatch.getActualAmountPaid());
+        }
+        log.info("Invoice balance verification found {} mismatched invoice(s){}",
+                mismatches.size(), repair && !mismatches.isEmpty() ? ", repaired" : "");
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.billingapp.job;
+
+import com.example.billingapp.service.MonthlyRevenueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the monthly_revenue rollup from the payments table on startup.
+ * Run with {@code --billing.jobs.monthly-revenue.backfill=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.jobs.monthly-revenue.backfill", havingValue = "true")
+public class MonthlyRevenueBackfillJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRevenueBackfillJob.class);
+
+    private final MonthlyRevenueService monthlyRevenueService;
+
+    public MonthlyRevenueBackfillJob(MonthlyRevenueService monthlyRevenueService) {
+        this.monthlyRevenueService = monthlyRevenueService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int rows = monthlyRevenueService.rebuild();
+        log.info("Monthly revenue rollup rebuilt with {} row(s)", rows);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.billingapp.job;
+
+import com.example.billingapp.service.UniqueValueFilters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the transaction number and email Bloom filters on startup. Uniqueness checks
+ * go to the database for every value until this has finished.
+ */
+@Component
+public class UniqueValueFilterLoadJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueValueFilterLoadJob.class);
+
+    private final UniqueValueFilters uniqueValueFilters;
+
+    public UniqueValueFilterLoadJob(UniqueValueFilters uniqueValueFilters) {
+        this.uniqueValueFilters = uniqueValueFilters;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        uniqueValueFilters.reload();
+        log.info("Unique value filters loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
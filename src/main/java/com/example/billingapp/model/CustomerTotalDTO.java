@@ -0,0 +1,41 @@
+package com.example.billingapp.model;
+
+public class CustomerTotalDTO {
+    private Long customerId;
+    private String customerName;
+    private Money totalPaid;
+
+    public CustomerTotalDTO(Long customerId, String customerName, Money totalPaid) {
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.totalPaid = totalPaid;
+    }
+
+    public CustomerTotalDTO(Long customerId, String customerName, Long totalPaidMinorUnits) {
+        this(customerId, customerName, Money.ofMinorUnits(totalPaidMinorUnits));
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public Money getTotalPaid() {
+        return totalPaid;
+    }
+
+    public void setTotalPaid(Money totalPaid) {
+        this.totalPaid = totalPaid;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.billingapp.model;
 
 import com.example.billingapp.model.enums.InvoiceStatus;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -9,36 +13,68 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_invoice_due_date_customer", columnList = "dueDate, customer_id"),
+        @Index(name = "idx_invoice_customer_due_date", columnList = "customer_id, dueDate"),
+        @Index(name = "idx_invoice_created_at_amount", columnList = "createdAt, amount")})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoice_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
+    // Money columns hold minor units; the accessors convert to and from Money.
     @Column(nullable = false)
-    private Double amount;
+    private Long amount;
 
     @Column(nullable = false)
     private LocalDate dueDate;
 
-    private LocalDateTime createdAt = LocalDateTime.now();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long amountPaid = 0L;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InvoiceStatus status = InvoiceStatus.PENDING;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL)
+    @Fetch(FetchMode.SUBSELECT)
     private List<Payment> payments = new ArrayList<>();
 
-    @Transient
+    /**
+     * Returns the stored payment status, reporting an unpaid invoice past its due date as OVERDUE.
+     */
     public InvoiceStatus getStatus() {
-        double totalPaid = payments.stream().mapToDouble(Payment::getAmount).sum();
-        if (totalPaid >= amount) {
+        if (status == InvoiceStatus.PENDING && dueDate != null && dueDate.isBefore(LocalDate.now())) {
+            return InvoiceStatus.OVERDUE;
+        }
+        return status;
+    }
+
+    /**
+     * Adds a payment to the stored balance and updates the status to match.
+     */
+    public void applyPayment(Money paymentAmount) {
+        setAmountPaid(getAmountPaid().plus(paymentAmount));
+    }
+
+    public static InvoiceStatus statusFor(long amount, long amountPaid) {
+        if (amountPaid >= amount) {
             return InvoiceStatus.PAID;
-        } else if (totalPaid > 0) {
+        } else if (amountPaid > 0) {
             return InvoiceStatus.PARTIALLY_PAID;
-        } else if (dueDate.isBefore(LocalDate.now())) {
-            return InvoiceStatus.OVERDUE;
         } else {
             return InvoiceStatus.PENDING;
         }
@@ -60,12 +96,23 @@ public class Invoice {
         this.customer = customer;
     }
 
-    public Double getAmount() {
-        return amount;
+    public Money getAmount() {
+        return Money.ofMinorUnits(amount);
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount == null ? null : amount.minorUnits();
+    }
+
+    public Money getAmountPaid() {
+        return Money.ofMinorUnits(amountPaid);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmountPaid(Money amountPaid) {
+        this.amountPaid = amountPaid.minorUnits();
+        if (amount != null) {
+            this.status = statusFor(amount, this.amountPaid);
+        }
     }
 
     public LocalDate getDueDate() {
@@ -80,8 +127,9 @@ public class Invoice {
         return createdAt;
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    @PrePersist
+    void onPersist() {
+        createdAt = LocalDateTime.now();
     }
 
     public List<Payment> getPayments() {
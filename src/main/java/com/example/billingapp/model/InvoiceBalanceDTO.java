@@ -0,0 +1,49 @@
+package com.example.billingapp.model;
+
+import com.example.billingapp.model.enums.InvoiceStatus;
+
+public class InvoiceBalanceDTO {
+    private Long invoiceId;
+    private Money storedAmountPaid;
+    private InvoiceStatus storedStatus;
+    private Money actualAmountPaid;
+
+    public InvoiceBalanceDTO(Long invoiceId, Long storedAmountPaid, InvoiceStatus storedStatus, Long actualAmountPaid) {
+        this.invoiceId = invoiceId;
+        this.storedAmountPaid = Money.ofMinorUnits(storedAmountPaid);
+        this.storedStatus = storedStatus;
+        this.actualAmountPaid = Money.ofMinorUnits(actualAmountPaid);
+    }
+
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public void setInvoiceId(Long invoiceId) {
+        this.invoiceId = invoiceId;
+    }
+
+    public Money getStoredAmountPaid() {
+        return storedAmountPaid;
+    }
+
+    public void setStoredAmountPaid(Money storedAmountPaid) {
+        this.storedAmountPaid = storedAmountPaid;
+    }
+
+    public InvoiceStatus getStoredStatus() {
+        return storedStatus;
+    }
+
+    public void setStoredStatus(InvoiceStatus storedStatus) {
+        this.storedStatus = storedStatus;
+    }
+
+    public Money getActualAmountPaid() {
+        return actualAmountPaid;
+    }
+
+    public void setActualAmountPaid(Money actualAmountPaid) {
+        this.actualAmountPaid = actualAmountPaid;
+    }
+}
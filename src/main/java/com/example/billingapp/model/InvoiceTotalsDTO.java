@@ -0,0 +1,31 @@
+package com.example.billingapp.model;
+
+public class InvoiceTotalsDTO {
+    private Long count;
+    private Money totalAmount;
+
+    public InvoiceTotalsDTO(Long count, Money totalAmount) {
+        this.count = count;
+        this.totalAmount = totalAmount;
+    }
+
+    public InvoiceTotalsDTO(Long count, Long totalAmountMinorUnits) {
+        this(count, Money.ofMinorUnits(totalAmountMinorUnits));
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Money totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
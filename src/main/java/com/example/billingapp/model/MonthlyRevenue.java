@@ -0,0 +1,111 @@
+package com.example.billingapp.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * One stripe of a month's revenue. Payments add to the stripe of their invoice, so
+ * payments on different invoices in the same month update different rows; a month's
+ * revenue is the sum of its stripes.
+ */
+@Entity
+@Table(name = "monthly_revenue")
+@IdClass(MonthlyRevenue.Cell.class)
+public class MonthlyRevenue {
+
+    public static final int STRIPES = 16;
+
+    @Id
+    private LocalDate monthStart;
+
+    @Id
+    private Integer stripe;
+
+    // Minor units.
+    @Column(nullable = false)
+    private Long total;
+
+    /**
+     * Identifies a stripe row; ordered by month, then stripe, which is also the order
+     * in which a batch locks the rows it updates.
+     */
+    public static class Cell implements Serializable, Comparable<Cell> {
+
+        private static final Comparator<Cell> ORDER =
+                Comparator.comparing((Cell cell) -> cell.monthStart).thenComparingInt(cell -> cell.stripe);
+
+        private LocalDate monthStart;
+        private Integer stripe;
+
+        protected Cell() {
+        }
+
+        public Cell(LocalDate monthStart, int stripe) {
+            this.monthStart = monthStart;
+            this.stripe = stripe;
+        }
+
+        /**
+         * The stripe a payment on the invoice adds to, in its payment date's month.
+         */
+        public static Cell of(LocalDate paymentDate, Long invoiceId) {
+            return new Cell(paymentDate.withDayOfMonth(1), (int) Math.floorMod(invoiceId, (long) STRIPES));
+        }
+
+        public LocalDate getMonthStart() {
+            return monthStart;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        @Override
+        public int compareTo(Cell other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cell cell && monthStart.equals(cell.monthStart) && stripe.equals(cell.stripe);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(monthStart, stripe);
+        }
+
+        @Override
+        public String toString() {
+            return monthStart + "#" + stripe;
+        }
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public Integer getStripe() {
+        return stripe;
+    }
+
+    public void setStripe(Integer stripe) {
+        this.stripe = stripe;
+    }
+
+    public Money getTotal() {
+        return Money.ofMinorUnits(total);
+    }
+
+    public void setTotal(Money total) {
+        this.total = total.minorUnits();
+    }
+}
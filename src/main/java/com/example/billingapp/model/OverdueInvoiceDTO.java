@@ -1,15 +1,34 @@
 package com.example.billingapp.model;
 
+import com.example.billingapp.model.enums.InvoiceStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
 public class OverdueInvoiceDTO {
     private String invoiceNumber;
     private String customerName;
-    private Double amount;
-    private Double amountPaid;
-    private Double balance;
+    private Money amount;
+    private Money amountPaid;
+    private Money balance;
     private String dueDate;
     private Integer daysOverdue;
     private String status;
 
+    public OverdueInvoiceDTO() {
+    }
+
+    public OverdueInvoiceDTO(Long invoiceId, String customerName, Long amount, Long amountPaid, LocalDate dueDate) {
+        this.invoiceNumber = "INV" + invoiceId;
+        this.customerName = customerName;
+        this.amount = Money.ofMinorUnits(amount);
+        this.amountPaid = Money.ofMinorUnits(amountPaid);
+        this.balance = Money.ofMinorUnits(amount - amountPaid);
+        this.dueDate = dueDate.toString();
+        this.daysOverdue = (int) ChronoUnit.DAYS.between(dueDate, LocalDate.now());
+        this.status = (amountPaid > 0 ? InvoiceStatus.PARTIALLY_PAID : InvoiceStatus.OVERDUE).toString();
+    }
+
     public String getInvoiceNumber() {
         return invoiceNumber;
     }
@@ -26,27 +45,27 @@ public class OverdueInvoiceDTO {
         this.customerName = customerName;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
-    public Double getAmountPaid() {
+    public Money getAmountPaid() {
         return amountPaid;
     }
 
-    public void setAmountPaid(Double amountPaid) {
+    public void setAmountPaid(Money amountPaid) {
         this.amountPaid = amountPaid;
     }
 
-    public Double getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
@@ -1,35 +1,44 @@
 package com.example.billingapp.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_payment_date_invoice_amount", columnList = "paymentDate, invoice_id, amount"),
+        @Index(name = "idx_payment_invoice", columnList = "invoice_id"),
+        @Index(name = "idx_payment_created_at", columnList = "createdAt")})
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long id;
 
-    @JsonIgnore
-    @ManyToOne
+    @JsonIgnoreProperties({"customer", "amount", "amountPaid", "status", "dueDate", "createdAt", "payments", "hibernateLazyInitializer"})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invoice_id", nullable = false)
     private Invoice invoice;
 
     @Column(nullable = false)
     private LocalDate paymentDate;
 
+    // Minor units; the accessors convert to and from Money.
     @Column(nullable = false)
-    private Double amount;
+    private Long amount;
 
     private String paymentMethod;
 
     @Column(unique = true, nullable = false)
     private String transactionNumber;
 
-    private LocalDateTime createdAt = LocalDateTime.now();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
 
     public Long getId() {
         return id;
@@ -55,12 +64,12 @@ public class Payment {
         this.paymentDate = paymentDate;
     }
 
-    public Double getAmount() {
-        return amount;
+    public Money getAmount() {
+        return Money.ofMinorUnits(amount);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(Money amount) {
+        this.amount = amount == null ? null : amount.minorUnits();
     }
 
     public String getPaymentMethod() {
@@ -83,7 +92,8 @@ public class Payment {
         return createdAt;
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    @PrePersist
+    void onPersist() {
+        createdAt = LocalDateTime.now();
     }
 }
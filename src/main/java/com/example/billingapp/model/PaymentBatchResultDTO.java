@@ -0,0 +1,70 @@
+package com.example.billingapp.model;
+
+public class PaymentBatchResultDTO {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private Integer index;
+    private String transactionNumber;
+    private String status;
+    private Long paymentId;
+    private String error;
+
+    public static PaymentBatchResultDTO created(int index, Payment payment) {
+        PaymentBatchResultDTO result = new PaymentBatchResultDTO();
+        result.setIndex(index);
+        result.setTransactionNumber(payment.getTransactionNumber());
+        result.setStatus(CREATED);
+        result.setPaymentId(payment.getId());
+        return result;
+    }
+
+    public static PaymentBatchResultDTO rejected(int index, Payment payment, String error) {
+        PaymentBatchResultDTO result = new PaymentBatchResultDTO();
+        result.setIndex(index);
+        result.setTransactionNumber(payment.getTransactionNumber());
+        result.setStatus(REJECTED);
+        result.setError(error);
+        return result;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public String getTransactionNumber() {
+        return transactionNumber;
+    }
+
+    public void setTransactionNumber(String transactionNumber) {
+        this.transactionNumber = transactionNumber;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
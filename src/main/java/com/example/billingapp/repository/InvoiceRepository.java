@@ -1,7 +1,81 @@
 package com.example.billingapp.repository;
 
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.InvoiceBalanceDTO;
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.OverdueInvoiceDTO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+
+    @Query("select new com.example.billingapp.model.InvoiceTotalsDTO(count(i), coalesce(sum(i.amount), 0L)) "
+            + "from Invoice i where i.createdAt >= :from and i.createdAt < :to")
+    InvoiceTotalsDTO summarizeCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.example.billingapp.model.OverdueInvoiceDTO(i.id, c.name, i.amount, i.amountPaid, i.dueDate) "
+            + "from Invoice i join i.customer c "
+            + "where i.dueDate < :today "
+            + "and i.status <> com.example.billingapp.model.enums.InvoiceStatus.PAID "
+            + "and (:customerId is null or i.customer.id = :customerId) "
+            + "and i.createdAt >= :from and i.createdAt < :to "
+            + "order by i.dueDate, i.id")
+    List<OverdueInvoiceDTO> findOverdue(@Param("today") LocalDate today, @Param("customerId") Long customerId,
+                                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Adds a payment to the stored balance only if it still fits under the invoice amount.
+     * The check and the write are one statement, so concurrent payments cannot both pass
+     * the check; returns 0 when the payment would overpay.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update invoice set amount_paid = amount_paid + :amount, "
+            + "status = case when amount_paid + :amount >= amount then 'PAID' else 'PARTIALLY_PAID' end "
+            + "where id = :id and amount_paid + :amount <= amount",
+            nativeQuery = true)
+    int applyPayment(@Param("id") Long id, @Param("amount") long amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Invoice i where i.id in :ids order by i.id")
+    List<Invoice> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select i from Invoice i join fetch i.customer order by i.id")
+    Stream<Invoice> streamAll();
+
+    @Query("select case when count(p) > 0 then true else false end from Payment p where p.invoice.id = :invoiceId")
+    boolean hasPayments(@Param("invoiceId") Long invoiceId);
+
+    @Query("select new com.example.billingapp.model.InvoiceBalanceDTO(i.id, i.amountPaid, i.status, coalesce(sum(p.amount), 0L)) "
+            + "from Invoice i left join i.payments p "
+            + "group by i.id, i.amount, i.amountPaid, i.status "
+            + "having i.amountPaid <> coalesce(sum(p.amount), 0L) "
+            + "or i.status <> case "
+            + "when coalesce(sum(p.amount), 0L) >= i.amount then com.example.billingapp.model.enums.InvoiceStatus.PAID "
+            + "when coalesce(sum(p.amount), 0L) > 0 then com.example.billingapp.model.enums.InvoiceStatus.PARTIALLY_PAID "
+            + "else com.example.billingapp.model.enums.InvoiceStatus.PENDING end")
+    List<InvoiceBalanceDTO> findBalanceMismatches();
+
+    @EntityGraph(attributePaths = "customer")
+    List<Invoice> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"customer", "payments"})
+    Optional<Invoice> findWithCustomerAndPaymentsById(Long id);
 }
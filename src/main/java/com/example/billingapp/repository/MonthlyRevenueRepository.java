@@ -0,0 +1,40 @@
+package com.example.billingapp.repository;
+
+import com.example.billingapp.model.MonthlyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlyRevenueRepository extends JpaRepository<MonthlyRevenue, MonthlyRevenue.Cell> {
+
+    List<MonthlyRevenue> findByMonthStartBetweenOrderByMonthStartAsc(LocalDate from, LocalDate to);
+
+    long countByMonthStart(LocalDate monthStart);
+
+    @Modifying
+    @Query(value = "update monthly_revenue set total = total + :amount "
+            + "where month_start = :monthStart and stripe = :stripe",
+            nativeQuery = true)
+    int addToMonth(@Param("monthStart") LocalDate monthStart, @Param("stripe") int stripe,
+                   @Param("amount") long amount);
+
+    @Modifying
+    @Query(value = "insert into monthly_revenue (month_start, stripe, total) "
+            + "select :monthStart, x, 0 from system_range(0, :stripes - 1) "
+            + "where x not in (select stripe from monthly_revenue where month_start = :monthStart)",
+            nativeQuery = true)
+    int insertMissingStripes(@Param("monthStart") LocalDate monthStart, @Param("stripes") int stripes);
+
+    @Modifying
+    @Query(value = "insert into monthly_revenue (month_start, stripe, total) "
+            + "select month_start, stripe, sum(amount) from ("
+            + "select cast(date_trunc('MONTH', payment_date) as date) month_start, "
+            + "mod(invoice_id, :stripes) stripe, amount from payment) "
+            + "group by month_start, stripe",
+            nativeQuery = true)
+    int rebuildFromPayments(@Param("stripes") int stripes);
+}
@@ -1,8 +1,84 @@
 package com.example.billingapp.repository;
 
+import com.example.billingapp.model.CustomerTotalDTO;
 import com.example.billingapp.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     boolean existsByTransactionNumber(String transactionNumber);
+
+    @Query("select p.transactionNumber from Payment p where p.transactionNumber in :transactionNumbers")
+    List<String> findExistingTransactionNumbers(@Param("transactionNumbers") Collection<String> transactionNumbers);
+
+    @Query("select coalesce(sum(p.amount), 0L) from Payment p where p.paymentDate between :from and :to")
+    long sumAmountPaidBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.example.billingapp.model.CustomerTotalDTO(c.id, c.name, sum(p.amount)) "
+            + "from Payment p join p.invoice i join i.customer c "
+            + "where p.paymentDate between :from and :to "
+            + "group by c.id, c.name "
+            + "order by sum(p.amount) desc, c.id")
+    List<CustomerTotalDTO> findTopCustomers(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("select coalesce(sum(p.amount), 0L) from Payment p "
+            + "where p.paymentDate between :from and :to and p.createdAt >= :createdFrom and p.createdAt < :createdTo")
+    long sumAmountPaidCreatedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                       @Param("createdFrom") LocalDateTime createdFrom,
+                                       @Param("createdTo") LocalDateTime createdTo);
+
+    @Query("select new com.example.billingapp.model.CustomerTotalDTO(c.id, c.name, sum(p.amount)) "
+            + "from Payment p join p.invoice i join i.customer c "
+            + "where p.paymentDate between :from and :to and p.createdAt >= :createdFrom and p.createdAt < :createdTo "
+            + "group by c.id, c.name "
+            + "order by sum(p.amount) desc, c.id")
+    List<CustomerTotalDTO> findTopCustomersCreatedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                          @Param("createdFrom") LocalDateTime createdFrom,
+                                                          @Param("createdTo") LocalDateTime createdTo,
+                                                          Pageable pageable);
+
+    @Query("select new com.example.billingapp.model.CustomerTotalDTO(c.id, c.name, sum(p.amount)) "
+            + "from Payment p join p.invoice i join i.customer c "
+            + "where p.paymentDate between :from and :to and p.createdAt >= :createdFrom and p.createdAt < :createdTo "
+            + "group by c.id, c.name")
+    List<CustomerTotalDTO> findCustomerTotalsCreatedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                            @Param("createdFrom") LocalDateTime createdFrom,
+                                                            @Param("createdTo") LocalDateTime createdTo);
+
+    @Query("select new com.example.billingapp.model.CustomerTotalDTO(c.id, c.name, sum(p.amount)) "
+            + "from Payment p join p.invoice i join i.customer c "
+            + "where c.id in :customerIds and p.paymentDate between :from and :to and p.createdAt < :createdTo "
+            + "group by c.id, c.name")
+    List<CustomerTotalDTO> findCustomerTotalsCreatedBefore(@Param("customerIds") Collection<Long> customerIds,
+                                                           @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                           @Param("createdTo") LocalDateTime createdTo);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.billingapp.model.CustomerTotalDTO(c.id, c.name, sum(p.amount)) "
+            + "from Payment p join p.invoice i join i.customer c "
+            + "where p.paymentDate between :from and :to "
+            + "group by c.id, c.name")
+    Stream<CustomerTotalDTO> streamCustomerTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p from Payment p order by p.id")
+    Stream<Payment> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p.transactionNumber from Payment p")
+    Stream<String> streamTransactionNumbers();
+
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
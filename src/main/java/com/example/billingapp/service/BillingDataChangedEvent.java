@@ -0,0 +1,76 @@
+package com.example.billingapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published by the services after a write that can change dashboard results. The dates
+ * are the business dates the write touched; an empty set means every date. Removals are
+ * flagged because they cannot be applied incrementally to dashboard snapshots.
+ */
+public class BillingDataChangedEvent {
+
+    public enum Kind {
+        CUSTOMERS,
+        CUSTOMER_NAMES,
+        INVOICES,
+        PAYMENTS
+    }
+
+    private final Kind kind;
+    private final Set<LocalDate> dates;
+    private final boolean removal;
+
+    public BillingDataChangedEvent(Kind kind, Collection<LocalDate> dates) {
+        this(kind, dates, false);
+    }
+
+    private BillingDataChangedEvent(Kind kind, Collection<LocalDate> dates, boolean removal) {
+        this.kind = kind;
+        this.dates = Set.copyOf(dates);
+        this.removal = removal;
+    }
+
+    public static BillingDataChangedEvent of(Kind kind, LocalDate date) {
+        return new BillingDataChangedEvent(kind, Set.of(date));
+    }
+
+    public static BillingDataChangedEvent of(Kind kind, LocalDateTime timestamp) {
+        return new BillingDataChangedEvent(kind, timestamp != null ? Set.of(timestamp.toLocalDate()) : Set.of());
+    }
+
+    public static BillingDataChangedEvent removed(Kind kind, LocalDateTime timestamp) {
+        return new BillingDataChangedEvent(kind, timestamp != null ? Set.of(timestamp.toLocalDate()) : Set.of(), true);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Set<LocalDate> getDates() {
+        return dates;
+    }
+
+    public boolean isRemoval() {
+        return removal;
+    }
+
+    public boolean touches(LocalDate startDate, LocalDate endDate) {
+        if (dates.isEmpty()) {
+            return true;
+        }
+        for (LocalDate date : dates) {
+            if ((startDate == null || !date.isBefore(startDate)) && (endDate == null || !date.isAfter(endDate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "BillingDataChangedEvent{kind=" + kind + ", dates=" + dates + ", removal=" + removal + "}";
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.billingapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Business counters, incremented once the transaction that recorded the payments has
+ * committed so rolled back work is never counted. The counters are registered once;
+ * counting is a field read and an add.
+ */
+@Component
+public class BillingMetrics implements MeterBinder {
+
+    private volatile Counter paymentsRecorded;
+    private volatile Counter amountCollected;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        paymentsRecorded = Counter.builder("billing.payments.recorded")
+                .description("Payments recorded")
+                .register(registry);
+        amountCollected = Counter.builder("billing.payments.amount.collected")
+                .baseUnit("cents")
+                .description("Sum of the recorded payments")
+                .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentsRecorded(PaymentsRecordedEvent event) {
+        Counter recorded = paymentsRecorded;
+        Counter collected = amountCollected;
+        if (recorded != null && collected != null) {
+            recorded.increment(event.getCount());
+            collected.increment(event.getAmount().minorUnits());
+        }
+    }
+}
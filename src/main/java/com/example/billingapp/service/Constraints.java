@@ -0,0 +1,33 @@
+package com.example.billingapp.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Names of the schema's unique constraints, and a check for which one a failed write
+ * violated, so only that violation is translated into a business error.
+ */
+final class Constraints {
+
+    static final String CUSTOMER_EMAIL = "uk_customer_email";
+    static final String PAYMENT_TRANSACTION_NUMBER = "uk_payment_transaction_number";
+
+    private Constraints() {
+    }
+
+    /**
+     * H2 reports the constraint's backing index, e.g. "PUBLIC.UK_CUSTOMER_EMAIL_INDEX_5 ON ...",
+     * so the name is matched as a case-insensitive substring.
+     */
+    static boolean violated(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
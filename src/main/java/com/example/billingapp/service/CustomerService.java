@@ -2,33 +2,53 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.repository.CustomerRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.example.billingapp.service.BillingDataChangedEvent.Kind.CUSTOMERS;
+import static com.example.billingapp.service.BillingDataChangedEvent.Kind.CUSTOMER_NAMES;
 
 @Service
 public class CustomerService {
 
+    private static final String DUPLICATE_EMAIL = "Email already exists";
+
     private final CustomerRepository customerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UniqueValueFilters uniqueValueFilters;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, ApplicationEventPublisher eventPublisher,
+                           UniqueValueFilters uniqueValueFilters) {
         this.customerRepository = customerRepository;
+        this.eventPublisher = eventPublisher;
+        this.uniqueValueFilters = uniqueValueFilters;
     }
 
     public Customer createCustomer(Customer customer) {
         if (customer.getName() == null || customer.getEmail() == null) {
             throw new BusinessRuleViolationException("Name and email are required");
         }
-        if (customerRepository.existsByEmail(customer.getEmail())) {
-            throw new BusinessRuleViolationException("Email already exists");
+        if (emailExists(customer.getEmail())) {
+            throw new BusinessRuleViolationException(DUPLICATE_EMAIL);
         }
-        return customerRepository.save(customer);
+        Customer saved = save(customer);
+        eventPublisher.publishEvent(BillingDataChangedEvent.of(CUSTOMERS, saved.getCreatedAt()));
+        return saved;
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    public CursorPage<Customer> getCustomers(Long cursor, int limit) {
+        int pageSize = Pagination.pageSize(limit);
+        List<Customer> rows = customerRepository.findByIdGreaterThanOrderByIdAsc(
+                Pagination.after(cursor), Pagination.fetchOneExtra(pageSize));
+        return CursorPage.of(rows, pageSize, Customer::getId);
     }
 
     public Customer getCustomerById(Long id) {
@@ -39,17 +59,44 @@ public class CustomerService {
     public Customer updateCustomer(Long id, Customer updatedCustomer) {
         Customer customer = getCustomerById(id);
         if (!customer.getEmail().equals(updatedCustomer.getEmail())
-                && customerRepository.existsByEmail(updatedCustomer.getEmail())) {
-            throw new BusinessRuleViolationException("Email already exists");
+                && emailExists(updatedCustomer.getEmail())) {
+            throw new BusinessRuleViolationException(DUPLICATE_EMAIL);
         }
+        boolean renamed = !Objects.equals(customer.getName(), updatedCustomer.getName());
         customer.setName(updatedCustomer.getName());
         customer.setEmail(updatedCustomer.getEmail());
         customer.setPhone(updatedCustomer.getPhone());
-        return customerRepository.save(customer);
+        Customer saved = save(customer);
+        if (renamed) {
+            eventPublisher.publishEvent(new BillingDataChangedEvent(CUSTOMER_NAMES, Set.of()));
+        }
+        return saved;
     }
 
     public void deleteCustomer(Long id) {
         Customer customer = getCustomerById(id);
         customerRepository.delete(customer);
+        eventPublisher.publishEvent(BillingDataChangedEvent.removed(CUSTOMERS, customer.getCreatedAt()));
+    }
+
+    private boolean emailExists(String email) {
+        return uniqueValueFilters.mayContainEmail(email) && customerRepository.existsByEmail(email);
+    }
+
+    /**
+     * Saves the customer and adds its email to the filter. The unique constraint catches
+     * an email taken between the check and the insert.
+     */
+    private Customer save(Customer customer) {
+        try {
+            Customer saved = customerRepository.save(customer);
+            uniqueValueFilters.addEmail(saved.getEmail());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.violated(e, Constraints.CUSTOMER_EMAIL)) {
+                throw new BusinessRuleViolationException(DUPLICATE_EMAIL);
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,111 @@
+package com.example.billingapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded (W-TinyLFU) cache of dashboard results keyed by view and date range.
+ * Entries are evicted when a committed write touches a date inside their range; there
+ * is no expiry, so correctness depends on every write publishing a
+ * {@link BillingDataChangedEvent}.
+ */
+@Component
+public class DashboardCache implements MeterBinder {
+
+    public enum View {
+        SUMMARY,
+        TOP_CUSTOMERS,
+        MONTHLY_REVENUE
+    }
+
+    public record Key(View view, LocalDate startDate, LocalDate endDate, int limit) {
+
+        public static Key of(View view, LocalDate startDate, LocalDate endDate) {
+            return new Key(view, startDate, endDate, 0);
+        }
+    }
+
+    private final Cache<Key, Object> cache;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock invalidationLock = new ReentrantLock();
+
+    public DashboardCache(@Value("${billing.dashboard.cache.enabled:true}") boolean enabled,
+                          @Value("${billing.dashboard.cache.maximum-size:1000}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        // A write that commits while the loader runs bumps the generation, and the result,
+        // which may predate that write, is returned without being cached.
+        long loadedAt = generation.get();
+        T value = loader.get();
+        invalidationLock.lock();
+        try {
+            if (generation.get() == loadedAt) {
+                cache.put(key, value);
+            }
+        } finally {
+            invalidationLock.unlock();
+        }
+        return value;
+    }
+
+    /**
+     * Returns a counter that every committed write increases, whether or not caching is enabled.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBillingDataChanged(BillingDataChangedEvent event) {
+        Set<View> views = viewsAffectedBy(event.getKind());
+        invalidationLock.lock();
+        try {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key ->
+                    views.contains(key.view()) && event.touches(key.startDate(), key.endDate()));
+        } finally {
+            invalidationLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "dashboard");
+    }
+
+    private static Set<View> viewsAffectedBy(BillingDataChangedEvent.Kind kind) {
+        return switch (kind) {
+            case CUSTOMERS, INVOICES -> EnumSet.of(View.SUMMARY);
+            case CUSTOMER_NAMES -> EnumSet.of(View.TOP_CUSTOMERS);
+            case PAYMENTS -> EnumSet.allOf(View.class);
+        };
+    }
+}
@@ -1,105 +1,214 @@
 package com.example.billingapp.service;
 
-import com.example.billingapp.model.Customer;
-import com.example.billingapp.model.Invoice;
-import com.example.billingapp.model.Payment;
+import com.example.billingapp.exception.BusinessRuleViolationException;
+import com.example.billingapp.model.CustomerTotalDTO;
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
 import com.example.billingapp.repository.CustomerRepository;
 import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.MonthlyRevenueRepository;
 import com.example.billingapp.repository.PaymentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
+@Timed("billing.service")
 public class DashboardService {
 
+    public static final int MAX_TOP_CUSTOMERS = 100;
+
+    // Higher total first; ties go to the lower customer id, matching findTopCustomers.
+    static final Comparator<CustomerTotalDTO> CUSTOMER_RANKING = Comparator
+            .comparing(CustomerTotalDTO::getTotalPaid)
+            .thenComparing(CustomerTotalDTO::getCustomerId, Comparator.reverseOrder());
+
     private final CustomerRepository customerRepository;
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
-
-    public DashboardService(CustomerRepository customerRepository, InvoiceRepository invoiceRepository, PaymentRepository paymentRepository) {
+    private final MonthlyRevenueRepository monthlyRevenueRepository;
+    private final ParallelQueries parallelQueries;
+    private final boolean topCustomersInMemory;
+
+    public DashboardService(CustomerRepository customerRepository, InvoiceRepository invoiceRepository,
+                            PaymentRepository paymentRepository, MonthlyRevenueRepository monthlyRevenueRepository,
+                            ParallelQueries parallelQueries,
+                            @Value("${billing.dashboard.top-customers.in-memory:false}") boolean topCustomersInMemory) {
         this.customerRepository = customerRepository;
         this.invoiceRepository = invoiceRepository;
         this.paymentRepository = paymentRepository;
+        this.monthlyRevenueRepository = monthlyRevenueRepository;
+        this.parallelQueries = parallelQueries;
+        this.topCustomersInMemory = topCustomersInMemory;
     }
 
+    /**
+     * The customer, invoice and payment aggregates are independent, so they run in
+     * parallel and the summary takes as long as the slowest of them.
+     */
+    @Coalesced
     public Map<String, Object> getSummary(LocalDate startDate, LocalDate endDate) {
+        FlightEvents.DashboardComputation event = new FlightEvents.DashboardComputation();
+        event.begin();
         Map<String, Object> summary = new HashMap<>();
 
-        List<Customer> customers = customerRepository.findAll();
-        long totalCustomers = customers.stream()
-                .filter(c -> filterByDate(c.getCreatedAt().toLocalDate(), startDate, endDate))
-                .count();
+        LocalDateTime from = DateBounds.startOf(startDate);
+        LocalDateTime to = DateBounds.endOf(endDate);
 
-        List<Invoice> invoices = invoiceRepository.findAll();
-        long totalInvoices = invoices.stream()
-                .filter(i -> filterByDate(i.getCreatedAt().toLocalDate(), startDate, endDate))
-                .count();
+        CompletableFuture<Long> customers = parallelQueries.submit(
+                () -> customerRepository.countCreatedBetween(from, to));
+        CompletableFuture<InvoiceTotalsDTO> invoices = parallelQueries.submit(
+                () -> invoiceRepository.summarizeCreatedBetween(from, to));
+        CompletableFuture<Long> payments = parallelQueries.submit(
+                () -> paymentRepository.sumAmountPaidBetween(DateBounds.lower(startDate), DateBounds.upper(endDate)));
+        parallelQueries.awaitAll(customers, invoices, payments);
 
-        double totalAmountInvoiced = invoices.stream()
-                .filter(i -> filterByDate(i.getCreatedAt().toLocalDate(), startDate, endDate))
-                .mapToDouble(Invoice::getAmount)
-                .sum();
+        InvoiceTotalsDTO invoiceTotals = invoices.join();
+        Money totalAmountInvoiced = invoiceTotals.getTotalAmount();
+        Money totalAmountPaid = Money.ofMinorUnits(payments.join());
 
-        double totalAmountPaid = paymentRepository.findAll().stream()
-                .filter(p -> filterByDate(p.getPaymentDate(), startDate, endDate))
-                .mapToDouble(Payment::getAmount)
-                .sum();
+        Money outstandingBalance = totalAmountInvoiced.minus(totalAmountPaid);
 
-        double outstandingBalance = totalAmountInvoiced - totalAmountPaid;
-
-        summary.put("totalCustomers", totalCustomers);
-        summary.put("totalInvoices", totalInvoices);
+        summary.put("totalCustomers", customers.join());
+        summary.put("totalInvoices", invoiceTotals.getCount());
         summary.put("totalAmountInvoiced", totalAmountInvoiced);
         summary.put("totalAmountPaid", totalAmountPaid);
         summary.put("outstandingBalance", outstandingBalance);
 
+        // One aggregate row each for customers, invoices and payments.
+        event.complete("summary", startDate, endDate, 3);
         return summary;
     }
 
-    public List<Map<String, Object>> getTopCustomers(LocalDate startDate, LocalDate endDate) {
-        Map<Customer, Double> customerPayments = new HashMap<>();
-        for (Payment payment : paymentRepository.findAll()) {
-            if (filterByDate(payment.getPaymentDate(), startDate, endDate)) {
-                Customer customer = payment.getInvoice().getCustomer();
-                customerPayments.put(customer, customerPayments.getOrDefault(customer, 0.0) + payment.getAmount());
+    /**
+     * Ranks customers by the sum of their payments in the range. By default the database
+     * groups, sorts and limits; with billing.dashboard.top-customers.in-memory=true it only
+     * groups and the top n are picked from the streamed totals with a bounded heap.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTopCustomers(LocalDate startDate, LocalDate endDate, int limit) {
+        FlightEvents.DashboardComputation event = new FlightEvents.DashboardComputation();
+        event.begin();
+        int n = topCustomerCount(limit);
+        LocalDate from = DateBounds.lower(startDate);
+        LocalDate to = DateBounds.upper(endDate);
+
+        List<CustomerTotalDTO> topCustomers;
+        long rowsRead;
+        if (topCustomersInMemory) {
+            TopN<CustomerTotalDTO> top = new TopN<>(n, CUSTOMER_RANKING);
+            try (Stream<CustomerTotalDTO> totals = paymentRepository.streamCustomerTotals(from, to)) {
+                totals.forEach(top::offer);
             }
+            topCustomers = top.toSortedList();
+            rowsRead = top.offered();
+        } else {
+            topCustomers = paymentRepository.findTopCustomers(from, to, PageRequest.of(0, n));
+            rowsRead = topCustomers.size();
+        }
+
+        List<Map<String, Object>> rows = customerRows(topCustomers);
+        event.complete("top-customers", startDate, endDate, rowsRead);
+        return rows;
+    }
+
+    /**
+     * Validates a requested number of top customers and caps it at {@value #MAX_TOP_CUSTOMERS}.
+     */
+    public static int topCustomerCount(int limit) {
+        if (limit <= 0) {
+            throw new BusinessRuleViolationException("Limit must be positive");
         }
-        return customerPayments.entrySet().stream()
-                .sorted(Comparator.<Map.Entry<Customer, Double>>comparingDouble(Map.Entry::getValue).reversed())
-                .limit(5)
-                .map(entry -> {
+        return Math.min(limit, MAX_TOP_CUSTOMERS);
+    }
+
+    static List<Map<String, Object>> customerRows(List<CustomerTotalDTO> customers) {
+        return customers.stream()
+                .map(customer -> {
                     Map<String, Object> map = new HashMap<>();
-                    map.put("customerName", entry.getKey().getName());
-                    map.put("totalPaid", entry.getValue());
+                    map.put("customerName", customer.getCustomerName());
+                    map.put("totalPaid", customer.getTotalPaid());
                     return map;
                 })
                 .toList();
     }
 
+    /**
+     * Complete months inside the range come from the monthly_revenue rollup; a month the
+     * range only partly covers is summed from the payments table so the edges stay exact.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getMonthlyRevenue(LocalDate startDate, LocalDate endDate) {
-        Map<String, Double> monthlyTotals = new TreeMap<>();
-        for (Payment payment : paymentRepository.findAll()) {
-            LocalDate date = payment.getPaymentDate();
-            if (filterByDate(date, startDate, endDate)) {
-                String monthKey = date.getYear() + "-" + String.format("%02d", date.getMonthValue());
-                monthlyTotals.put(monthKey, monthlyTotals.getOrDefault(monthKey, 0.0) + payment.getAmount());
+        FlightEvents.DashboardComputation event = new FlightEvents.DashboardComputation();
+        event.begin();
+        MoneyTotals<YearMonth> monthlyTotals = new MoneyTotals<>();
+        long rowsRead = 0;
+        YearMonth firstFullMonth = startDate == null || startDate.getDayOfMonth() == 1
+                ? YearMonth.from(DateBounds.lower(startDate))
+                : YearMonth.from(startDate).plusMonths(1);
+        YearMonth lastFullMonth = endDate == null || endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+                ? YearMonth.from(DateBounds.upper(endDate))
+                : YearMonth.from(endDate).minusMonths(1);
+
+        if (firstFullMonth.isAfter(lastFullMonth)) {
+            // No complete month in the range: it falls within one month or straddles two.
+            LocalDate from = DateBounds.lower(startDate);
+            LocalDate to = DateBounds.upper(endDate);
+            LocalDate endOfFirstMonth = YearMonth.from(from).atEndOfMonth();
+            rowsRead += addPartialMonth(monthlyTotals, from, to.isAfter(endOfFirstMonth) ? endOfFirstMonth : to);
+            if (to.isAfter(endOfFirstMonth)) {
+                rowsRead += addPartialMonth(monthlyTotals, to.withDayOfMonth(1), to);
+            }
+        } else {
+            for (MonthlyRevenue month : monthlyRevenueRepository.findByMonthStartBetweenOrderByMonthStartAsc(
+                    firstFullMonth.atDay(1), lastFullMonth.atDay(1))) {
+                rowsRead++;
+                if (month.getTotal().isPositive()) {
+                    monthlyTotals.add(YearMonth.from(month.getMonthStart()), month.getTotal());
+                }
+            }
+            if (startDate != null && startDate.isBefore(firstFullMonth.atDay(1))) {
+                rowsRead += addPartialMonth(monthlyTotals, startDate, YearMonth.from(startDate).atEndOfMonth());
+            }
+            if (endDate != null && endDate.isAfter(lastFullMonth.atEndOfMonth())) {
+                rowsRead += addPartialMonth(monthlyTotals, endDate.withDayOfMonth(1), endDate);
             }
         }
-        return monthlyTotals.entrySet().stream()
-                .map(entry -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("month", entry.getKey());
-                    map.put("total", entry.getValue());
-                    return map;
-                })
-                .toList();
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        monthlyTotals.forEach((month, total) -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("month", month.toString());
+            map.put("total", total);
+            rows.add(map);
+        });
+        event.complete("monthly-revenue", startDate, endDate, rowsRead);
+        return rows;
     }
 
-    private boolean filterByDate(LocalDate date, LocalDate start, LocalDate end) {
-        if (start != null && date.isBefore(start)) return false;
-        if (end != null && date.isAfter(end)) return false;
-        return true;
+    /**
+     * Returns the number of rows read, which is one unless the range is empty.
+     */
+    private int addPartialMonth(MoneyTotals<YearMonth> monthlyTotals, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return 0;
+        }
+        long total = paymentRepository.sumAmountPaidBetween(from, to);
+        if (total > 0) {
+            monthlyTotals.add(YearMonth.from(from), total);
+        }
+        return 1;
     }
 }
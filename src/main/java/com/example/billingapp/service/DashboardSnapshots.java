@@ -0,0 +1,242 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.CustomerTotalDTO;
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.example.billingapp.service.DashboardService.CUSTOMER_RANKING;
+import static com.example.billingapp.service.DashboardService.MAX_TOP_CUSTOMERS;
+
+/**
+ * Precomputed all-time and current-month dashboards, served without touching the database.
+ * <p>
+ * Each refresh adds the customers, invoices and payments created since the previous
+ * snapshot, up to a cut-off a commit lag behind the clock. createdAt is set when a row is
+ * inserted, so the lag must cover the longest time from insert to commit: by default it
+ * is the payment transaction timeout, and customers and invoices commit as they are
+ * inserted. Payments are never removed, so a customer's total only
+ * grows: the new top customers are found among the previous top customers and those
+ * with new payments. Removals and renames, a new month, and the full refresh interval
+ * trigger a full recompute instead.
+ * <p>
+ * Monthly revenue is not cut off at {@code asOf}: it is read from the monthly revenue
+ * rollup when the snapshot is taken, so it includes every payment committed by then.
+ */
+@Component
+public class DashboardSnapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSnapshots.class);
+
+    public record Snapshot(LocalDateTime asOf, LocalDate startDate, LocalDate endDate,
+                           long totalCustomers, long totalInvoices, Money totalAmountInvoiced,
+                           Money totalAmountPaid, List<CustomerTotalDTO> topCustomers,
+                           List<Map<String, Object>> monthlyRevenue) {
+
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("totalCustomers", totalCustomers);
+            summary.put("totalInvoices", totalInvoices);
+            summary.put("totalAmountInvoiced", totalAmountInvoiced);
+            summary.put("totalAmountPaid", totalAmountPaid);
+            summary.put("outstandingBalance", totalAmountInvoiced.minus(totalAmountPaid));
+            return summary;
+        }
+
+        public List<Map<String, Object>> topCustomers(int limit) {
+            int n = DashboardService.topCustomerCount(limit);
+            return DashboardService.customerRows(topCustomers.subList(0, Math.min(n, topCustomers.size())));
+        }
+    }
+
+    private final CustomerRepository customerRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final DashboardService dashboardService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration commitLag;
+    private final Duration fullRefreshInterval;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Snapshot allTime;
+    private volatile Snapshot currentMonth;
+    private volatile boolean fullRefreshRequested = true;
+    private LocalDateTime lastFullRefresh;
+
+    public DashboardSnapshots(CustomerRepository customerRepository, InvoiceRepository invoiceRepository,
+                              PaymentRepository paymentRepository, DashboardService dashboardService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${billing.dashboard.snapshot.commit-lag:${billing.payments.transaction-timeout:PT30S}}") Duration commitLag,
+                              @Value("${billing.dashboard.snapshot.full-refresh-interval:PT1H}") Duration fullRefreshInterval) {
+        this.customerRepository = customerRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.dashboardService = dashboardService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.commitLag = commitLag;
+        this.fullRefreshInterval = fullRefreshInterval;
+    }
+
+    /**
+     * Returns the snapshot for an all-time range (no dates) or the current calendar month.
+     */
+    public Optional<Snapshot> find(LocalDate startDate, LocalDate endDate) {
+        Snapshot snapshot = startDate == null && endDate == null ? allTime : currentMonth;
+        if (snapshot == null || !sameDate(snapshot.startDate(), startDate) || !sameDate(snapshot.endDate(), endDate)) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Refreshes both snapshots in one read-only transaction. Returns false without doing
+     * anything if another refresh is running, since this one would repeat its work.
+     */
+    public boolean refresh() {
+        if (!refreshLock.tryLock()) {
+            log.debug("Dashboard snapshot refresh skipped, another refresh is running");
+            return false;
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> refreshSnapshots());
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime asOf = now.minus(commitLag);
+        YearMonth month = YearMonth.from(now);
+        boolean full = fullRefreshRequested || lastFullRefresh == null
+                || !now.isBefore(lastFullRefresh.plus(fullRefreshInterval));
+        if (full) {
+            // Cleared before reading, so a removal during the refresh requests another one.
+            fullRefreshRequested = false;
+        }
+
+        Snapshot previousAllTime = full ? null : allTime;
+        Snapshot previousMonth = full || currentMonth == null || !currentMonth.startDate().equals(month.atDay(1))
+                ? null : currentMonth;
+        long start = System.nanoTime();
+        Snapshot newAllTime;
+        Snapshot newMonth;
+        try {
+            newAllTime = refresh(previousAllTime, null, null, asOf);
+            newMonth = refresh(previousMonth, month.atDay(1), month.atEndOfMonth(), asOf);
+        } catch (RuntimeException e) {
+            if (full) {
+                fullRefreshRequested = true;
+            }
+            throw e;
+        }
+        allTime = newAllTime;
+        currentMonth = newMonth;
+        if (full) {
+            lastFullRefresh = now;
+        }
+        log.debug("Dashboard snapshots refreshed ({}) as of {} in {} ms", full ? "full" : "incremental",
+                asOf, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBillingDataChanged(BillingDataChangedEvent event) {
+        if (event.isRemoval() || event.getKind() == BillingDataChangedEvent.Kind.CUSTOMER_NAMES) {
+            fullRefreshRequested = true;
+        }
+    }
+
+    private Snapshot refresh(Snapshot previous, LocalDate startDate, LocalDate endDate, LocalDateTime asOf) {
+        if (previous != null && !asOf.isAfter(previous.asOf())) {
+            return previous;
+        }
+        LocalDate from = DateBounds.lower(startDate);
+        LocalDate to = DateBounds.upper(endDate);
+        LocalDateTime since = previous == null ? DateBounds.startOf(null) : previous.asOf();
+
+        // Customers and invoices count towards the range they were created in.
+        LocalDateTime createdFrom = max(since, DateBounds.startOf(startDate));
+        LocalDateTime createdTo = min(asOf, DateBounds.endOf(endDate));
+        long newCustomers = 0;
+        long newInvoices = 0;
+        Money newAmountInvoiced = Money.ZERO;
+        if (createdFrom.isBefore(createdTo)) {
+            newCustomers = customerRepository.countCreatedBetween(createdFrom, createdTo);
+            InvoiceTotalsDTO invoiceTotals = invoiceRepository.summarizeCreatedBetween(createdFrom, createdTo);
+            newInvoices = invoiceTotals.getCount();
+            newAmountInvoiced = invoiceTotals.getTotalAmount();
+        }
+
+        Money amountPaid;
+        List<CustomerTotalDTO> topCustomers;
+        if (previous == null) {
+            amountPaid = Money.ofMinorUnits(paymentRepository.sumAmountPaidCreatedBetween(from, to, since, asOf));
+            topCustomers = paymentRepository.findTopCustomersCreatedBetween(from, to, since, asOf,
+                    PageRequest.of(0, MAX_TOP_CUSTOMERS));
+        } else {
+            List<CustomerTotalDTO> newPayments = paymentRepository.findCustomerTotalsCreatedBetween(from, to, since, asOf);
+            amountPaid = previous.totalAmountPaid().plus(Money.ofMinorUnits(
+                    MoneyTotals.sum(newPayments, customer -> customer.getTotalPaid().minorUnits())));
+            topCustomers = mergeTopCustomers(previous.topCustomers(), newPayments, from, to, asOf);
+        }
+
+        return new Snapshot(asOf, startDate, endDate,
+                (previous == null ? 0 : previous.totalCustomers()) + newCustomers,
+                (previous == null ? 0 : previous.totalInvoices()) + newInvoices,
+                previous == null ? newAmountInvoiced : previous.totalAmountInvoiced().plus(newAmountInvoiced),
+                amountPaid, topCustomers, dashboardService.getMonthlyRevenue(startDate, endDate));
+    }
+
+    private List<CustomerTotalDTO> mergeTopCustomers(List<CustomerTotalDTO> previousTop, List<CustomerTotalDTO> newPayments,
+                                                     LocalDate from, LocalDate to, LocalDateTime asOf) {
+        if (newPayments.isEmpty()) {
+            return previousTop;
+        }
+        Map<Long, CustomerTotalDTO> candidates = new LinkedHashMap<>();
+        previousTop.forEach(customer -> candidates.put(customer.getCustomerId(), customer));
+        List<Long> customerIds = newPayments.stream().map(CustomerTotalDTO::getCustomerId).toList();
+        for (List<Long> chunk : Lookups.chunks(customerIds)) {
+            paymentRepository.findCustomerTotalsCreatedBefore(chunk, from, to, asOf)
+                    .forEach(customer -> candidates.put(customer.getCustomerId(), customer));
+        }
+        TopN<CustomerTotalDTO> top = new TopN<>(MAX_TOP_CUSTOMERS, CUSTOMER_RANKING);
+        candidates.values().forEach(top::offer);
+        return new ArrayList<>(top.toSortedList());
+    }
+
+    private static boolean sameDate(LocalDate a, LocalDate b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.billingapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Closes optional report date filters with fixed bounds so the repository
+ * queries can use plain range predicates instead of null checks. Payments dated
+ * before {@link #MIN_DATE} are rejected, so an open start misses none of them.
+ */
+final class DateBounds {
+
+    static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 30);
+
+    private DateBounds() {
+    }
+
+    static LocalDate lower(LocalDate start) {
+        return start != null ? start : MIN_DATE;
+    }
+
+    static LocalDate upper(LocalDate end) {
+        return end != null ? end : MAX_DATE;
+    }
+
+    static LocalDateTime startOf(LocalDate start) {
+        return lower(start).atStartOfDay();
+    }
+
+    static LocalDateTime endOf(LocalDate end) {
+        return upper(end).plusDays(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.billingapp.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Java Flight Recorder events for the billing hot paths, so that GC and lock pauses in a
+ * recording can be matched to the payment, dashboard or report that was running. The
+ * events are not registered unless billing.jfr.enabled=true; until then begin and commit
+ * are no-ops and nothing shows up in recordings. Fields are only filled in for an event
+ * that will be committed. Once registered, any running recording (for example one
+ * started with -XX:StartFlightRecording) captures them.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.jfr.enabled", havingValue = "true")
+public class FlightEvents {
+
+    static final String CATEGORY = "Billing";
+
+    public FlightEvents() {
+        FlightRecorder.register(PaymentCreation.class);
+        FlightRecorder.register(DashboardComputation.class);
+        FlightRecorder.register(OverdueReport.class);
+    }
+
+    @Name("billing.PaymentCreation")
+    @Label("Payment Creation")
+    @Category(CATEGORY)
+    @Registered(false)
+    static class PaymentCreation extends Event {
+
+        static final String CREATED = "CREATED";
+
+        @Label("Invoice Id")
+        long invoiceId;
+
+        @Label("Outcome")
+        @Description("CREATED, the business rule that rejected the payment, or the unexpected exception")
+        String outcome;
+
+        void complete(Long invoiceId, String outcome) {
+            if (shouldCommit()) {
+                this.invoiceId = invoiceId == null ? 0 : invoiceId;
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    @Name("billing.DashboardComputation")
+    @Label("Dashboard Computation")
+    @Category(CATEGORY)
+    @Registered(false)
+    static class DashboardComputation extends Event {
+
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Start Date")
+        String startDate;
+
+        @Label("End Date")
+        String endDate;
+
+        @Label("Rows Read")
+        @Description("Result rows read from the database")
+        long rowsRead;
+
+        void complete(String endpoint, LocalDate startDate, LocalDate endDate, long rowsRead) {
+            if (shouldCommit()) {
+                this.endpoint = endpoint;
+                this.startDate = format(startDate);
+                this.endDate = format(endDate);
+                this.rowsRead = rowsRead;
+                commit();
+            }
+        }
+    }
+
+    @Name("billing.OverdueReport")
+    @Label("Overdue Report")
+    @Category(CATEGORY)
+    @Registered(false)
+    static class OverdueReport extends Event {
+
+        @Label("Customer Id")
+        long customerId;
+
+        @Label("Start Date")
+        String startDate;
+
+        @Label("End Date")
+        String endDate;
+
+        @Label("Invoices")
+        long invoices;
+
+        void complete(Long customerId, LocalDate startDate, LocalDate endDate, long invoices) {
+            if (shouldCommit()) {
+                this.customerId = customerId == null ? 0 : customerId;
+                this.startDate = format(startDate);
+                this.endDate = format(endDate);
+                this.invoices = invoices;
+                commit();
+            }
+        }
+    }
+
+    private static String format(LocalDate date) {
+        return date == null ? null : date.toString();
+    }
+}
@@ -2,82 +2,135 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
+import com.example.billingapp.model.Customer;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.InvoiceBalanceDTO;
 import com.example.billingapp.model.OverdueInvoiceDTO;
-import com.example.billingapp.model.enums.InvoiceStatus;
 import com.example.billingapp.repository.CustomerRepository;
 import com.example.billingapp.repository.InvoiceRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.example.billingapp.service.BillingDataChangedEvent.Kind.INVOICES;
 
 @Service
+@Timed("billing.service")
 public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public InvoiceService(InvoiceRepository invoiceRepository, CustomerRepository customerRepository) {
+    public InvoiceService(InvoiceRepository invoiceRepository, CustomerRepository customerRepository,
+                          EntityManager entityManager, ApplicationEventPublisher eventPublisher) {
         this.invoiceRepository = invoiceRepository;
         this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
     }
 
     public Invoice createInvoice(Invoice invoice) {
-        if (invoice.getCustomer() == null || !customerRepository.existsById(invoice.getCustomer().getId())) {
+        // findById rather than existsById: the lookup is served from the second-level cache.
+        Customer customer = invoice.getCustomer() == null ? null
+                : customerRepository.findById(invoice.getCustomer().getId()).orElse(null);
+        if (customer == null) {
             throw new BusinessRuleViolationException("An invoice cannot be created without a valid existing customer");
         }
-        if (invoice.getAmount() <= 0) {
+        invoice.setCustomer(customer);
+        if (invoice.getAmount() == null || !invoice.getAmount().isPositive()) {
             throw new BusinessRuleViolationException("Amount must be positive and non-zero");
         }
         if (invoice.getDueDate().isBefore(LocalDate.now().plusDays(1))) {
             throw new BusinessRuleViolationException("DueDate must be in the future");
         }
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        eventPublisher.publishEvent(BillingDataChangedEvent.of(INVOICES, saved.getCreatedAt()));
+        return saved;
     }
 
-    public List<Invoice> getAllInvoices() {
-        return invoiceRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Invoice> getInvoices(Long cursor, int limit) {
+        int pageSize = Pagination.pageSize(limit);
+        List<Invoice> rows = invoiceRepository.findByIdGreaterThanOrderByIdAsc(
+                Pagination.after(cursor), Pagination.fetchOneExtra(pageSize));
+        // Payments use subselect fetching: the first initialize loads them for the whole page.
+        rows.forEach(invoice -> Hibernate.initialize(invoice.getPayments()));
+        return CursorPage.of(rows, pageSize, Invoice::getId);
     }
 
+    /**
+     * Streams every invoice to the sink inside one read-only transaction, detaching each
+     * row once it has been handed over so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public void exportInvoices(Consumer<Invoice> sink) {
+        try (Stream<Invoice> invoices = invoiceRepository.streamAll()) {
+            invoices.forEach(invoice -> {
+                sink.accept(invoice);
+                entityManager.detach(invoice);
+                entityManager.detach(invoice.getCustomer());
+            });
+        }
+    }
+
+    /**
+     * Loads the invoice with its customer and payments in one query, since all three are
+     * serialized after the transaction has closed.
+     */
+    @Transactional(readOnly = true)
     public Invoice getInvoiceById(Long id) {
-        return invoiceRepository.findById(id)
+        return invoiceRepository.findWithCustomerAndPaymentsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
     }
 
     public void deleteInvoice(Long id) {
-        Invoice invoice = getInvoiceById(id);
-        if (!invoice.getPayments().isEmpty()) {
+        Invoice invoice = findInvoice(id);
+        if (invoiceRepository.hasPayments(id)) {
             throw new BusinessRuleViolationException("An invoice with payments cannot be deleted");
         }
         invoiceRepository.delete(invoice);
+        eventPublisher.publishEvent(BillingDataChangedEvent.removed(INVOICES, invoice.getCreatedAt()));
     }
 
+    @Coalesced
     public List<OverdueInvoiceDTO> getOverdueInvoices(Long customerId, LocalDate startDate, LocalDate endDate) {
-        List<Invoice> invoices = invoiceRepository.findAll();
-        List<OverdueInvoiceDTO> overdueList = new ArrayList<>();
-        for (Invoice invoice : invoices) {
-            InvoiceStatus status = invoice.getStatus();
-            if (invoice.getDueDate().isBefore(LocalDate.now()) && status != InvoiceStatus.PAID) {
-                if (customerId != null && !invoice.getCustomer().getId().equals(customerId)) continue;
-                if (startDate != null && invoice.getCreatedAt().toLocalDate().isBefore(startDate)) continue;
-                if (endDate != null && invoice.getCreatedAt().toLocalDate().isAfter(endDate)) continue;
+        FlightEvents.OverdueReport event = new FlightEvents.OverdueReport();
+        event.begin();
+        List<OverdueInvoiceDTO> overdue = invoiceRepository.findOverdue(LocalDate.now(), customerId,
+                DateBounds.startOf(startDate), DateBounds.endOf(endDate));
+        event.complete(customerId, startDate, endDate, overdue.size());
+        return overdue;
+    }
 
-                double paid = invoice.getPayments().stream().mapToDouble(p -> p.getAmount()).sum();
-                OverdueInvoiceDTO dto = new OverdueInvoiceDTO();
-                dto.setInvoiceNumber("INV" + invoice.getId());
-                dto.setCustomerName(invoice.getCustomer().getName());
-                dto.setAmount(invoice.getAmount());
-                dto.setAmountPaid(paid);
-                dto.setBalance(invoice.getAmount() - paid);
-                dto.setDueDate(invoice.getDueDate().toString());
-                dto.setDaysOverdue((int) ChronoUnit.DAYS.between(invoice.getDueDate(), LocalDate.now()));
-                dto.setStatus(status.toString());
-                overdueList.add(dto);
+    /**
+     * Compares each invoice's stored balance and status against its payment rows,
+     * optionally rewriting the stored values from the payments.
+     */
+    @Transactional
+    public List<InvoiceBalanceDTO> verifyBalances(boolean repair) {
+        List<InvoiceBalanceDTO> mismatches = invoiceRepository.findBalanceMismatches();
+        if (repair) {
+            for (InvoiceBalanceDTO mismatch : mismatches) {
+                Invoice invoice = findInvoice(mismatch.getInvoiceId());
+                invoice.setAmountPaid(mismatch.getActualAmountPaid());
             }
         }
-        return overdueList;
+        return mismatches;
+    }
+
+    private Invoice findInvoice(Long id) {
+        return invoiceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
     }
 }
@@ -0,0 +1,32 @@
+package com.example.billingapp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits the keys of set-based lookups so no IN list grows with the request size.
+ */
+final class Lookups {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private Lookups() {
+    }
+
+    static <T> List<List<T>> chunks(Collection<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.Money;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Running totals in minor units per key. Each key owns a one-element long array that is
+ * added to in place, so only the first amount for a key allocates; merging boxed Doubles
+ * into a map allocates on every step. Keys are kept in their natural order.
+ */
+final class MoneyTotals<K extends Comparable<? super K>> {
+
+    private final Map<K, long[]> totals = new TreeMap<>();
+
+    void add(K key, long minorUnits) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[1]);
+        total[0] = Math.addExact(total[0], minorUnits);
+    }
+
+    void add(K key, Money amount) {
+        add(key, amount.minorUnits());
+    }
+
+    void forEach(BiConsumer<K, Money> action) {
+        totals.forEach((key, total) -> action.accept(key, Money.ofMinorUnits(total[0])));
+    }
+
+    static <T> long sum(Iterable<T> values, ToLongFunction<T> minorUnits) {
+        long sum = 0;
+        for (T value : values) {
+            sum = Math.addExact(sum, minorUnits.applyAsLong(value));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
+import com.example.billingapp.repository.MonthlyRevenueRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the monthly_revenue rollup that backs the monthly revenue dashboard. Each
+ * month has {@link MonthlyRevenue#STRIPES} rows and a payment adds to its invoice's
+ * stripe, so payments on different invoices rarely wait for each other's row lock.
+ */
+@Service
+public class MonthlyRevenueService {
+
+    private final MonthlyRevenueRepository monthlyRevenueRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate newTransaction;
+    private final Set<LocalDate> knownMonths = ConcurrentHashMap.newKeySet();
+
+    public MonthlyRevenueService(MonthlyRevenueRepository monthlyRevenueRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.monthlyRevenueRepository = monthlyRevenueRepository;
+        this.eventPublisher = eventPublisher;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Makes sure the payment date's month has all its stripe rows, committing them on their
+     * own. Call this before the payment transaction starts: concurrent first payments of a
+     * month would otherwise race to insert the rows inside their transactions, and the loser
+     * would fail. Here the loser's duplicate key error is simply ignored.
+     */
+    public void ensureMonth(LocalDate paymentDate) {
+        LocalDate monthStart = paymentDate.withDayOfMonth(1);
+        if (knownMonths.contains(monthStart)) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (monthlyRevenueRepository.countByMonthStart(monthStart) < MonthlyRevenue.STRIPES) {
+                    monthlyRevenueRepository.insertMissingStripes(monthStart, MonthlyRevenue.STRIPES);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another payment created the month first.
+        }
+        knownMonths.add(monthStart);
+    }
+
+    /**
+     * Adds a payment amount to a month's stripe, see {@link MonthlyRevenue.Cell#of}. Runs in
+     * the caller's transaction so the rollup commits or rolls back together with the
+     * payment rows.
+     *
+     * @throws MissingMonthException if a rebuild removed the month's rows after ensureMonth.
+     * Inserting them here would collide with concurrent payments in that month; the caller
+     * rolls back, calls ensureMonth outside its transaction and retries.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(MonthlyRevenue.Cell cell, Money amount) {
+        LocalDate monthStart = cell.getMonthStart();
+        if (monthlyRevenueRepository.addToMonth(monthStart, cell.getStripe(), amount.minorUnits()) == 0) {
+            knownMonths.remove(monthStart);
+            throw new MissingMonthException(monthStart);
+        }
+    }
+
+    /**
+     * Rebuilds the rollup from the payments table and returns the number of stripe rows
+     * written; ensureMonth adds the empty stripes when a month next gets a payment.
+     */
+    @Transactional
+    public int rebuild() {
+        knownMonths.clear();
+        monthlyRevenueRepository.deleteAllInBatch();
+        int rows = monthlyRevenueRepository.rebuildFromPayments(MonthlyRevenue.STRIPES);
+        eventPublisher.publishEvent(new BillingDataChangedEvent(BillingDataChangedEvent.Kind.PAYMENTS, Set.of()));
+        return rows;
+    }
+
+    static class MissingMonthException extends RuntimeException {
+
+        private final LocalDate monthStart;
+
+        MissingMonthException(LocalDate monthStart) {
+            super("No monthly revenue rows for " + monthStart);
+            this.monthStart = monthStart;
+        }
+
+        LocalDate getMonthStart() {
+            return monthStart;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.exception.BusinessRuleViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Page size limits for the keyset-paginated list endpoints.
+ */
+final class Pagination {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private Pagination() {
+    }
+
+    static int pageSize(int limit) {
+        if (limit <= 0) {
+            throw new BusinessRuleViolationException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    static long after(Long cursor) {
+        return cursor != null ? cursor : 0L;
+    }
+
+    static Pageable fetchOneExtra(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.config.SqlStatementCounter;
+import com.example.billingapp.config.VirtualThreadConfig;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read queries concurrently, each in its own read-only transaction on a
+ * bounded pool (virtual threads with billing.threads.virtual=true). When the pool and its
+ * queue are full the caller runs the query itself, so overload degrades to running the
+ * queries one after another.
+ * <p>
+ * Every query has the same timeout: the caller stops waiting for it, and its transaction
+ * timeout cancels the JDBC statement. The first query to fail cancels those that have not
+ * started. H2 cannot share a snapshot between connections, so each query reads its own
+ * committed snapshot. Inside a caller's transaction the queries run in that transaction
+ * on the caller's thread, seeing its snapshot and its own uncommitted writes.
+ */
+@Component
+public class ParallelQueries {
+
+    private final ExecutorService executor;
+    private final TransactionOperations transactions;
+    private final Duration timeout;
+
+    @Autowired
+    public ParallelQueries(PlatformTransactionManager transactionManager,
+                           @Value("${billing.parallel-queries.threads:8}") int threads,
+                           @Value("${billing.parallel-queries.queue-capacity:100}") int queueCapacity,
+                           @Value("${billing.parallel-queries.timeout:PT10S}") Duration timeout,
+                           @Value("${billing.threads.virtual:false}") boolean virtualThreads) {
+        this(newExecutor(threads, queueCapacity, virtualThreads), readOnly(transactionManager, timeout), timeout);
+    }
+
+    ParallelQueries(ExecutorService executor, TransactionOperations transactions, Duration timeout) {
+        this.executor = executor;
+        this.transactions = transactions;
+        this.timeout = timeout;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                return CompletableFuture.completedFuture(query.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        SqlStatementCounter.Tally tally = SqlStatementCounter.current();
+        return CompletableFuture.supplyAsync(() -> {
+            // The caller's own tally when the pool is saturated and the caller runs the query.
+            SqlStatementCounter.Tally previous = SqlStatementCounter.current();
+            SqlStatementCounter.attach(tally);
+            try {
+                return transactions.execute(status -> query.get());
+            } finally {
+                SqlStatementCounter.attach(previous);
+            }
+        }, executor).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until every query has completed, or until the first one fails, which cancels
+     * the rest and is rethrown. A timeout is rethrown as a {@link QueryTimeoutException}.
+     */
+    public void awaitAll(CompletableFuture<?>... queries) {
+        for (CompletableFuture<?> query : queries) {
+            query.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    for (CompletableFuture<?> other : queries) {
+                        other.cancel(false);
+                    }
+                }
+            });
+        }
+        try {
+            CompletableFuture.allOf(queries).join();
+        } catch (CompletionException | CancellationException e) {
+            throw unwrap(e, queries);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private RuntimeException unwrap(RuntimeException e, CompletableFuture<?>... queries) {
+        // allOf reports an arbitrary failure; prefer the one that caused the cancellations.
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        for (CompletableFuture<?> query : queries) {
+            if (query.isCompletedExceptionally() && !query.isCancelled()) {
+                try {
+                    query.join();
+                } catch (CompletionException failure) {
+                    cause = failure.getCause();
+                    break;
+                }
+            }
+        }
+        if (cause instanceof TimeoutException) {
+            return new QueryTimeoutException("Query did not complete within " + timeout);
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity, boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads
+                ? VirtualThreadConfig.virtualThreadFactory("query-")
+                : new CustomizableThreadFactory("query-");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager, Duration timeout) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout(Transactions.timeoutSeconds(timeout));
+        return template;
+    }
+}
@@ -2,66 +2,288 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
 import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.PaymentBatchResultDTO;
 import com.example.billingapp.repository.InvoiceRepository;
 import com.example.billingapp.repository.PaymentRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.example.billingapp.service.BillingDataChangedEvent.Kind.PAYMENTS;
 
 @Service
+@Timed("billing.service")
 public class PaymentService {
 
+    static final int MAX_BATCH_SIZE = 50_000;
+    private static final String INVALID_INVOICE = "Invalid invoice";
+    private static final String DUPLICATE_TRANSACTION = "Transaction number must be unique";
+    private static final String OVERPAYMENT = "A payment's total + previous payments must not exceed the invoice amount";
+
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
+    private final EntityManager entityManager;
+    private final MonthlyRevenueService monthlyRevenueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final UniqueValueFilters uniqueValueFilters;
 
-    public PaymentService(PaymentRepository paymentRepository, InvoiceRepository invoiceRepository) {
+    public PaymentService(PaymentRepository paymentRepository, InvoiceRepository invoiceRepository,
+                          EntityManager entityManager, MonthlyRevenueService monthlyRevenueService,
+                          ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                          UniqueValueFilters uniqueValueFilters,
+                          @Value("${billing.payments.transaction-timeout:PT30S}") Duration transactionTimeout) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
+        this.entityManager = entityManager;
+        this.monthlyRevenueService = monthlyRevenueService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Bounds how long a payment can stay uncommitted after its createdAt; see DashboardSnapshots.
+        this.transactionTemplate.setTimeout(Transactions.timeoutSeconds(transactionTimeout));
+        this.uniqueValueFilters = uniqueValueFilters;
     }
 
-    @Transactional
+    /**
+     * The invoice balance is updated with a conditional UPDATE rather than read, checked
+     * and written back, so concurrent payments on one invoice cannot overpay it. The row
+     * lock taken by the update is per invoice and held only until commit. Transaction
+     * numbers the Bloom filter has never seen skip the duplicate probe; the unique
+     * constraint still rejects a duplicate that races past the check.
+     */
     public Payment createPayment(Payment payment) {
-        if (payment.getInvoice() == null
-                || payment.getInvoice().getId() == null
-                || !invoiceRepository.existsById(payment.getInvoice().getId())) {
-            throw new BusinessRuleViolationException("Invalid invoice");
+        FlightEvents.PaymentCreation event = new FlightEvents.PaymentCreation();
+        event.begin();
+        String outcome = null;
+        try {
+            Payment saved = recordPayment(payment);
+            outcome = FlightEvents.PaymentCreation.CREATED;
+            return saved;
+        } catch (BusinessRuleViolationException e) {
+            outcome = e.getMessage();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getName();
+            throw e;
+        } finally {
+            event.complete(payment.getInvoice() == null ? null : payment.getInvoice().getId(), outcome);
         }
-        if (payment.getAmount() == null || payment.getAmount() <= 0) {
-            throw new BusinessRuleViolationException("Payment amount must be positive");
+    }
+
+    private Payment recordPayment(Payment payment) {
+        if (payment.getInvoice() == null || payment.getInvoice().getId() == null) {
+            throw new BusinessRuleViolationException(INVALID_INVOICE);
         }
-        if (payment.getPaymentDate() == null) {
-            throw new BusinessRuleViolationException("Payment date is required");
+        validateDetails(payment);
+        monthlyRevenueService.ensureMonth(payment.getPaymentDate());
+
+        try {
+            return inPaymentTransaction(List.of(payment), status -> insertPayment(payment));
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.violated(e, Constraints.PAYMENT_TRANSACTION_NUMBER)) {
+                throw new BusinessRuleViolationException(DUPLICATE_TRANSACTION);
+            }
+            throw e;
         }
-        if (payment.getPaymentDate().isAfter(LocalDate.now())) {
-            throw new BusinessRuleViolationException("A payment's date must be on or before the current date");
+    }
+
+    private Payment insertPayment(Payment payment) {
+        String transactionNumber = payment.getTransactionNumber();
+        if (uniqueValueFilters.mayContainTransactionNumber(transactionNumber)
+                && paymentRepository.existsByTransactionNumber(transactionNumber)) {
+            throw new BusinessRuleViolationException(DUPLICATE_TRANSACTION);
         }
-        if (payment.getTransactionNumber() == null || payment.getTransactionNumber().isBlank()) {
-            throw new BusinessRuleViolationException("Transaction number is required");
+        Long invoiceId = payment.getInvoice().getId();
+        if (invoiceRepository.applyPayment(invoiceId, payment.getAmount().minorUnits()) == 0) {
+            // No row updated: the invoice is missing, or the payment would overpay it.
+            throw new BusinessRuleViolationException(
+                    invoiceRepository.existsById(invoiceId) ? OVERPAYMENT : INVALID_INVOICE);
         }
-        if (paymentRepository.existsByTransactionNumber(payment.getTransactionNumber())) {
-            throw new BusinessRuleViolationException("Transaction number must be unique");
+        payment.setInvoice(invoiceRepository.getReferenceById(invoiceId));
+        Payment saved = paymentRepository.save(payment);
+        uniqueValueFilters.addTransactionNumber(transactionNumber);
+        monthlyRevenueService.record(MonthlyRevenue.Cell.of(saved.getPaymentDate(), invoiceId), saved.getAmount());
+        eventPublisher.publishEvent(BillingDataChangedEvent.of(PAYMENTS, saved.getPaymentDate()));
+        eventPublisher.publishEvent(new PaymentsRecordedEvent(1, saved.getAmount()));
+        return saved;
+    }
+
+    /**
+     * Records a batch of payments in one transaction, applying the createPayment rules
+     * to every row. Transaction numbers are checked and invoices loaded with one
+     * set-based query per chunk; the invoices are locked for update so single payments
+     * wait for the batch instead of racing it. Accepted rows are inserted through JDBC batching.
+     * Rejected rows do not stop the batch and are reported with their reason.
+     */
+    public List<PaymentBatchResultDTO> createPayments(List<Payment> payments) {
+        if (payments.size() > MAX_BATCH_SIZE) {
+            throw new BusinessRuleViolationException("A batch may contain at most " + MAX_BATCH_SIZE + " payments");
         }
+        payments.stream()
+                .map(Payment::getPaymentDate)
+                .filter(date -> date != null && !date.isAfter(LocalDate.now()) && !date.isBefore(DateBounds.MIN_DATE))
+                .map(date -> date.withDayOfMonth(1))
+                .distinct()
+                .forEach(monthlyRevenueService::ensureMonth);
+        return inPaymentTransaction(payments, status -> recordBatch(payments));
+    }
 
-        var invoice = invoiceRepository.findById(payment.getInvoice().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
-        double totalPaid = invoice.getPayments().stream().mapToDouble(Payment::getAmount).sum() + payment.getAmount();
-        if (totalPaid > invoice.getAmount()) {
-            throw new BusinessRuleViolationException("A payment's total + previous payments must not exceed the invoice amount");
+    /**
+     * Runs the action in a payment transaction. If a rollup rebuild removed a month's rows
+     * after ensureMonth, the transaction rolls back, the rows are recreated outside it and
+     * the action runs once more; a second miss fails the request.
+     */
+    private <T> T inPaymentTransaction(List<Payment> payments, TransactionCallback<T> action) {
+        try {
+            return transactionTemplate.execute(action);
+        } catch (MonthlyRevenueService.MissingMonthException e) {
+            monthlyRevenueService.ensureMonth(e.getMonthStart());
+            // Ids from the rolled back inserts; cleared so save persists instead of merging,
+            // which would look every payment up first.
+            payments.forEach(payment -> payment.setId(null));
+            return transactionTemplate.execute(action);
         }
+    }
 
-        payment.setInvoice(invoice);
-        return paymentRepository.save(payment);
+    private List<PaymentBatchResultDTO> recordBatch(List<Payment> payments) {
+        Set<String> transactionNumbers = new HashSet<>();
+        // Sorted, so invoices are locked in id order across chunks and batches cannot deadlock.
+        Set<Long> invoiceIds = new TreeSet<>();
+        for (Payment payment : payments) {
+            if (payment.getTransactionNumber() != null) {
+                transactionNumbers.add(payment.getTransactionNumber());
+            }
+            if (payment.getInvoice() != null && payment.getInvoice().getId() != null) {
+                invoiceIds.add(payment.getInvoice().getId());
+            }
+        }
+        // Only numbers the filter may have seen need the database lookup.
+        transactionNumbers.removeIf(number -> !uniqueValueFilters.mayContainTransactionNumber(number));
+        Set<String> existingTransactionNumbers = new HashSet<>();
+        for (List<String> chunk : Lookups.chunks(transactionNumbers)) {
+            existingTransactionNumbers.addAll(paymentRepository.findExistingTransactionNumbers(chunk));
+        }
+        Map<Long, Invoice> invoices = new HashMap<>();
+        for (List<Long> chunk : Lookups.chunks(invoiceIds)) {
+            invoiceRepository.findAllByIdForUpdate(chunk).forEach(invoice -> invoices.put(invoice.getId(), invoice));
+        }
+
+        PaymentBatchResultDTO[] results = new PaymentBatchResultDTO[payments.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            try {
+                Invoice invoice = payment.getInvoice() != null ? invoices.get(payment.getInvoice().getId()) : null;
+                if (invoice == null) {
+                    throw new BusinessRuleViolationException(INVALID_INVOICE);
+                }
+                validateDetails(payment);
+                if (!existingTransactionNumbers.add(payment.getTransactionNumber())) {
+                    throw new BusinessRuleViolationException(DUPLICATE_TRANSACTION);
+                }
+                applyToInvoice(payment, invoice);
+                acceptedIndexes.add(i);
+            } catch (BusinessRuleViolationException e) {
+                results[i] = PaymentBatchResultDTO.rejected(i, payment, e.getMessage());
+            }
+        }
+
+        List<Payment> accepted = acceptedIndexes.stream().map(payments::get).toList();
+        paymentRepository.saveAll(accepted);
+        accepted.forEach(payment -> uniqueValueFilters.addTransactionNumber(payment.getTransactionNumber()));
+        // Sorted, so concurrent batches take the rollup row locks in the same order.
+        MoneyTotals<MonthlyRevenue.Cell> revenueByStripe = new MoneyTotals<>();
+        for (Payment payment : accepted) {
+            revenueByStripe.add(MonthlyRevenue.Cell.of(payment.getPaymentDate(), payment.getInvoice().getId()),
+                    payment.getAmount());
+        }
+        revenueByStripe.forEach(monthlyRevenueService::record);
+        if (!accepted.isEmpty()) {
+            eventPublisher.publishEvent(new BillingDataChangedEvent(PAYMENTS,
+                    accepted.stream().map(Payment::getPaymentDate).toList()));
+            eventPublisher.publishEvent(new PaymentsRecordedEvent(accepted.size(),
+                    Money.ofMinorUnits(MoneyTotals.sum(accepted, payment -> payment.getAmount().minorUnits()))));
+        }
+        for (int i : acceptedIndexes) {
+            results[i] = PaymentBatchResultDTO.created(i, payments.get(i));
+        }
+        return Arrays.asList(results);
     }
 
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public CursorPage<Payment> getPayments(Long cursor, int limit) {
+        int pageSize = Pagination.pageSize(limit);
+        List<Payment> rows = paymentRepository.findByIdGreaterThanOrderByIdAsc(
+                Pagination.after(cursor), Pagination.fetchOneExtra(pageSize));
+        return CursorPage.of(rows, pageSize, Payment::getId);
+    }
+
+    /**
+     * Streams every payment to the sink inside one read-only transaction, detaching each
+     * row once it has been handed over so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public void exportPayments(Consumer<Payment> sink) {
+        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+            payments.forEach(payment -> {
+                sink.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
     }
 
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
     }
+
+    private void validateDetails(Payment payment) {
+        if (payment.getAmount() == null || !payment.getAmount().isPositive()) {
+            throw new BusinessRuleViolationException("Payment amount must be positive");
+        }
+        if (payment.getPaymentDate() == null) {
+            throw new BusinessRuleViolationException("Payment date is required");
+        }
+        if (payment.getPaymentDate().isAfter(LocalDate.now())) {
+            throw new BusinessRuleViolationException("A payment's date must be on or before the current date");
+        }
+        if (payment.getPaymentDate().isBefore(DateBounds.MIN_DATE)) {
+            throw new BusinessRuleViolationException("A payment's date must be on or after " + DateBounds.MIN_DATE);
+        }
+        if (payment.getTransactionNumber() == null || payment.getTransactionNumber().isBlank()) {
+            throw new BusinessRuleViolationException("Transaction number is required");
+        }
+    }
+
+    private void applyToInvoice(Payment payment, Invoice invoice) {
+        if (invoice.getAmountPaid().plus(payment.getAmount()).compareTo(invoice.getAmount()) > 0) {
+            throw new BusinessRuleViolationException(OVERPAYMENT);
+        }
+        invoice.applyPayment(payment.getAmount());
+        payment.setInvoice(invoice);
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.Money;
+
+/**
+ * Published by PaymentService for every accepted payment or batch of payments.
+ */
+public class PaymentsRecordedEvent {
+
+    private final int count;
+    private final Money amount;
+
+    public PaymentsRecordedEvent(int count, Money amount) {
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentsRecordedEvent{count=" + count + ", amount=" + amount + "}";
+    }
+}
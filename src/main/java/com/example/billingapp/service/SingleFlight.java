@@ -0,0 +1,115 @@
+package com.example.billingapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls to {@link Coalesced} methods: the first call with given
+ * arguments runs, and calls with equal arguments that arrive while it is in flight wait
+ * for it and get the same result or exception. Nothing is kept once the call returns.
+ * <p>
+ * A caller only joins a flight that started after the last committed write, tracked by
+ * the {@link DashboardCache} generation; otherwise it runs its own call, which later
+ * callers join, so nobody is handed a result that predates a write they have seen.
+ * <p>
+ * The aspect runs outside the method's transaction, so waiting callers hold no database
+ * connection. Calls made inside a transaction, or through {@link #bypass}, run on their
+ * own. Each call is counted in {@code billing.coalescing.calls}, tagged with class,
+ * method and outcome {@code executed} or {@code coalesced}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlight {
+
+    private static final ThreadLocal<Boolean> BYPASSED = new ThreadLocal<>();
+
+    private record Call(Method method, List<Object> arguments) {
+    }
+
+    private record Flight(long generation, CompletableFuture<Object> result) {
+    }
+
+    private final ConcurrentHashMap<Call, Flight> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final DashboardCache dashboardCache;
+
+    public SingleFlight(MeterRegistry registry, DashboardCache dashboardCache) {
+        this.registry = registry;
+        this.dashboardCache = dashboardCache;
+    }
+
+    /**
+     * Runs the call without sharing any coalesced method call made inside it, for callers
+     * that asked for data computed for them, such as dashboard requests with fresh=true.
+     */
+    public static <T> T bypass(Supplier<T> call) {
+        Boolean previous = BYPASSED.get();
+        BYPASSED.set(Boolean.TRUE);
+        try {
+            return call.get();
+        } finally {
+            BYPASSED.set(previous);
+        }
+    }
+
+    @Around("@annotation(com.example.billingapp.service.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (BYPASSED.get() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Call call = new Call(method, Arrays.asList(joinPoint.getArgs()));
+        Flight flight = new Flight(dashboardCache.generation(), new CompletableFuture<>());
+        // A flight from before the last committed write is left to finish for its own
+        // callers, and replaced by this one for later callers.
+        Flight running = inFlight.compute(call, (key, current) ->
+                current != null && current.generation() == flight.generation() ? current : flight);
+        if (running != flight) {
+            count(method, "coalesced");
+            try {
+                return running.result().join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        count(method, "executed");
+        try {
+            Object result = joinPoint.proceed();
+            flight.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(call, flight);
+        }
+    }
+
+    private void count(Method method, String outcome) {
+        Counter.builder("billing.coalescing.calls")
+                .description("Calls to coalesced methods, by whether they ran or shared a call in flight")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.billingapp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the n greatest values offered to it in a min-heap of size n, so selecting the
+ * top n of m values costs O(m log n) time and O(n) memory.
+ */
+final class TopN<T> {
+
+    private final int n;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+    private long offered;
+
+    TopN(int n, Comparator<? super T> order) {
+        this.n = n;
+        this.order = order;
+        this.heap = new PriorityQueue<>(n, order);
+    }
+
+    void offer(T value) {
+        offered++;
+        if (heap.size() < n) {
+            heap.add(value);
+        } else if (order.compare(value, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(value);
+        }
+    }
+
+    long offered() {
+        return offered;
+    }
+
+    List<T> toSortedList() {
+        List<T> values = new ArrayList<>(heap);
+        values.sort(order.reversed());
+        return values;
+    }
+}
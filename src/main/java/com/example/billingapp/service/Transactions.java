@@ -0,0 +1,20 @@
+package com.example.billingapp.service;
+
+import java.time.Duration;
+
+/**
+ * Helpers for the programmatic transactions in this package.
+ */
+final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Transaction timeouts are whole seconds, so the timeout is rounded up; Spring applies
+     * the remaining time to each statement as its query timeout.
+     */
+    static int timeoutSeconds(Duration timeout) {
+        return (int) Math.max(1, (timeout.toMillis() + 999) / 1000);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over payment transaction numbers and customer emails, used to skip the
+ * uniqueness probe for values that were never stored. A negative answer is definite; a
+ * positive one still goes to the database, and the unique constraints stay the final
+ * guard. Until {@link #reload()} has run every value is reported as possibly present.
+ */
+@Component
+public class UniqueValueFilters implements MeterBinder {
+
+    private final PaymentRepository paymentRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long minimumCapacity;
+    private final double falsePositiveProbability;
+    private final Filter transactionNumbers = new Filter();
+    private final Filter emails = new Filter();
+
+    public UniqueValueFilters(PaymentRepository paymentRepository, CustomerRepository customerRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${billing.unique-filter.enabled:true}") boolean enabled,
+                              @Value("${billing.unique-filter.minimum-capacity:100000}") long minimumCapacity,
+                              @Value("${billing.unique-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.paymentRepository = paymentRepository;
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public boolean mayContainTransactionNumber(String transactionNumber) {
+        return transactionNumbers.mightContain(transactionNumber);
+    }
+
+    public void addTransactionNumber(String transactionNumber) {
+        transactionNumbers.add(transactionNumber);
+    }
+
+    public boolean mayContainEmail(String email) {
+        return emails.mightContain(email);
+    }
+
+    public void addEmail(String email) {
+        emails.add(email);
+    }
+
+    /**
+     * Rebuilds both filters from the database, sized for twice the current row count so
+     * they keep their false-positive rate while the tables grow. Values added while a
+     * load runs go into the new filter as well.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            load(transactionNumbers, paymentRepository.count(), paymentRepository::streamTransactionNumbers);
+            load(emails, customerRepository.count(), customerRepository::streamEmails);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "transaction-number", transactionNumbers);
+        bind(registry, "email", emails);
+    }
+
+    private void load(Filter filter, long rows, Supplier<Stream<String>> values) {
+        BloomFilter bloomFilter = BloomFilter.create(Math.max(minimumCapacity, rows * 2), falsePositiveProbability);
+        filter.loaded = false;
+        filter.bloomFilter = bloomFilter;
+        try (Stream<String> stream = values.get()) {
+            stream.forEach(bloomFilter::put);
+        }
+        filter.loaded = true;
+    }
+
+    private static void bind(MeterRegistry registry, String name, Filter filter) {
+        Gauge.builder("billing.unique.filter.false.positive.probability", filter, Filter::falsePositiveProbability)
+                .tag("filter", name)
+                .description("Estimated chance that an absent value still needs a database probe")
+                .register(registry);
+        Gauge.builder("billing.unique.filter.memory", filter, Filter::memoryBytes)
+                .tag("filter", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    private static final class Filter {
+
+        private volatile BloomFilter bloomFilter;
+        private volatile boolean loaded;
+
+        boolean mightContain(String value) {
+            BloomFilter current = bloomFilter;
+            return !loaded || current.mightContain(value);
+        }
+
+        void add(String value) {
+            BloomFilter current = bloomFilter;
+            if (current != null) {
+                current.put(value);
+            }
+        }
+
+        double falsePositiveProbability() {
+            BloomFilter current = bloomFilter;
+            return loaded ? current.expectedFalsePositiveProbability() : 1.0;
+        }
+
+        double memoryBytes() {
+            BloomFilter current = bloomFilter;
+            return current == null ? 0 : current.memoryBytes();
+        }
+    }
+}
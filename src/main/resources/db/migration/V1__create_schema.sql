@@ -0,0 +1,49 @@
+-- Schema as Hibernate generated it before migrations took over from ddl-auto.
+
+create sequence customer_seq start with 1 increment by 50;
+create sequence invoice_seq start with 1 increment by 50;
+create sequence payment_seq start with 1 increment by 50;
+
+create table customer (
+    id bigint not null,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    phone varchar(255),
+    created_at timestamp(6),
+    constraint pk_customer primary key (id),
+    constraint uk_customer_email unique (email)
+);
+
+create table invoice (
+    id bigint not null,
+    customer_id bigint not null,
+    amount float(53) not null,
+    amount_paid float(53) not null,
+    due_date date not null,
+    status varchar(255) not null check (status in ('PENDING', 'PARTIALLY_PAID', 'PAID', 'OVERDUE')),
+    created_at timestamp(6),
+    constraint pk_invoice primary key (id),
+    constraint fk_invoice_customer foreign key (customer_id) references customer
+);
+
+create table payment (
+    id bigint not null,
+    invoice_id bigint not null,
+    payment_date date not null,
+    amount float(53) not null,
+    payment_method varchar(255),
+    transaction_number varchar(255) not null,
+    created_at timestamp(6),
+    constraint pk_payment primary key (id),
+    constraint uk_payment_transaction_number unique (transaction_number),
+    constraint fk_payment_invoice foreign key (invoice_id) references invoice
+);
+
+create table monthly_revenue (
+    month_start date not null,
+    total float(53) not null,
+    constraint pk_monthly_revenue primary key (month_start)
+);
+
+create index idx_invoice_due_date_customer on invoice (due_date, customer_id);
+create index idx_payment_date_invoice_amount on payment (payment_date, invoice_id, amount);
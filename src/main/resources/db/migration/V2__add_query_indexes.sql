@@ -0,0 +1,18 @@
+-- Indexes for the columns the reports filter and join on. The foreign keys are
+-- recreated after their indexes so H2 uses these instead of its own implicit ones.
+
+alter table payment drop constraint fk_payment_invoice;
+alter table invoice drop constraint fk_invoice_customer;
+
+create index idx_customer_created_at on customer (created_at);
+
+-- Customer's invoices and the overdue report filtered to one customer.
+create index idx_invoice_customer_due_date on invoice (customer_id, due_date);
+-- Dashboard invoice totals: covers the created_at range and the summed amount.
+create index idx_invoice_created_at_amount on invoice (created_at, amount);
+
+-- Payments of an invoice: the payments collection, hasPayments and the join to invoice.
+create index idx_payment_invoice on payment (invoice_id);
+
+alter table invoice add constraint fk_invoice_customer foreign key (customer_id) references customer;
+alter table payment add constraint fk_payment_invoice foreign key (invoice_id) references invoice;
@@ -0,0 +1,2 @@
+-- Dashboard snapshot refreshes read the payments created since the previous snapshot.
+create index idx_payment_created_at on payment (created_at);
@@ -0,0 +1,17 @@
+-- Money columns move from float(53) to bigint minor units (cents). Existing values are
+-- rounded to the nearest cent; the indexes that cover amount are rebuilt around the change.
+
+drop index idx_invoice_created_at_amount;
+drop index idx_payment_date_invoice_amount;
+
+update invoice set amount = round(amount * 100), amount_paid = round(amount_paid * 100);
+update payment set amount = round(amount * 100);
+update monthly_revenue set total = round(total * 100);
+
+alter table invoice alter column amount set data type bigint;
+alter table invoice alter column amount_paid set data type bigint;
+alter table payment alter column amount set data type bigint;
+alter table monthly_revenue alter column total set data type bigint;
+
+create index idx_invoice_created_at_amount on invoice (created_at, amount);
+create index idx_payment_date_invoice_amount on payment (payment_date, invoice_id, amount);
@@ -0,0 +1,7 @@
+-- Each month's revenue is split over stripe rows chosen by invoice id, so payments on
+-- different invoices in the same month update different rows instead of queueing on one
+-- row lock. Readers sum the stripes. Existing totals stay in stripe 0.
+
+alter table monthly_revenue add column stripe int default 0 not null;
+alter table monthly_revenue drop constraint pk_monthly_revenue;
+alter table monthly_revenue add constraint pk_monthly_revenue primary key (month_start, stripe);
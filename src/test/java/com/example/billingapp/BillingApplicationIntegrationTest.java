@@ -2,6 +2,7 @@ package com.example.billingapp;
 
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
 import com.example.billingapp.model.Payment;
 import com.example.billingapp.repository.CustomerRepository;
 import com.example.billingapp.repository.InvoiceRepository;
@@ -18,7 +19,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -63,7 +67,7 @@ class BillingApplicationIntegrationTest {
         // Create Invoice
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
 
         String invoiceJson = mockMvc.perform(post("/api/invoices")
@@ -82,7 +86,7 @@ class BillingApplicationIntegrationTest {
         // Create Payment
         Payment payment = new Payment();
         payment.setInvoice(createdInvoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-" + System.currentTimeMillis());
 
@@ -103,17 +107,34 @@ class BillingApplicationIntegrationTest {
                 .andExpect(jsonPath("$.outstandingBalance").value(500.0));
     }
 
+    @Test
+    void createInvoice_IgnoresCreatedAtFromClient() throws Exception {
+        String json = "{\"customer\": {\"id\": " + customer.getId() + "}, \"amount\": 100.0, "
+                + "\"dueDate\": \"" + LocalDate.now().plusDays(30) + "\", \"createdAt\": \"2000-01-01T00:00:00\"}";
+
+        String invoiceJson = mockMvc.perform(post("/api/invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Invoice created = objectMapper.readValue(invoiceJson, Invoice.class);
+        assertEquals(LocalDate.now(), invoiceRepository.findById(created.getId()).orElseThrow().getCreatedAt().toLocalDate());
+    }
+
     @Test
     void createPaymentExceedingInvoiceAmount_ReturnsBadRequest() throws Exception {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         Invoice savedInvoice = invoiceRepository.save(invoice);
 
         Payment payment = new Payment();
         payment.setInvoice(savedInvoice);
-        payment.setAmount(1500.0); // Exceeds invoice amount
+        payment.setAmount(Money.of("1500.00")); // Exceeds invoice amount
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-EXCEED");
 
@@ -127,13 +148,13 @@ class BillingApplicationIntegrationTest {
     void deleteInvoiceWithPayments_ReturnsBadRequest() throws Exception {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         Invoice savedInvoice = invoiceRepository.save(invoice);
 
         Payment payment = new Payment();
         payment.setInvoice(savedInvoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-DELETE");
         paymentRepository.save(payment);
@@ -141,4 +162,36 @@ class BillingApplicationIntegrationTest {
         mockMvc.perform(delete("/api/invoices/" + savedInvoice.getId()))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void createPaymentsBatch_RecordsValidRowsAndRejectsInvalidOnes() throws Exception {
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+
+        List<Payment> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Payment payment = new Payment();
+            payment.setInvoice(savedInvoice);
+            payment.setAmount(Money.of("300.00"));
+            payment.setPaymentDate(LocalDate.now());
+            payment.setTransactionNumber("TXN-BATCH-" + i);
+            batch.add(payment);
+        }
+        batch.add(batch.get(0));
+
+        mockMvc.perform(post("/api/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[2].status").value("CREATED"))
+                .andExpect(jsonPath("$[3].status").value("REJECTED"));
+
+        assertEquals(3, paymentRepository.count());
+        assertEquals(Money.of("900.00"), invoiceRepository.findById(savedInvoice.getId()).orElseThrow().getAmountPaid());
+    }
 }
@@ -0,0 +1,129 @@
+package com.example.billingapp;
+
+import com.example.billingapp.controller.SqlStatisticsFilter;
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import com.example.billingapp.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "billing.sql.statement-budget=1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void prometheusEndpoint_ExposesRequestServiceRepositoryPoolAndBusinessMetrics() throws Exception {
+        double recordedBefore = meterRegistry.counter("billing.payments.recorded").count();
+        double collectedBefore = meterRegistry.counter("billing.payments.amount.collected").count();
+
+        paymentService.createPayment(payment(invoice(), Money.of("125.50")));
+        mockMvc.perform(get("/api/dashboard/summary")).andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.counter("billing.payments.recorded").count() - recordedBefore);
+        assertEquals(12550, meterRegistry.counter("billing.payments.amount.collected").count() - collectedBefore);
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/dashboard/summary\"")))
+                .andExpect(content().string(containsString("billing_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"createPayment\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{")))
+                .andExpect(content().string(containsString("billing_payments_recorded_total")))
+                .andExpect(content().string(containsString("billing_payments_amount_collected_cents_total")))
+                .andExpect(content().string(containsString("billing_coalescing_calls_total{")));
+    }
+
+    @Test
+    void request_ReportsSqlStatementsAndWarnsOverBudget(CapturedOutput output) throws Exception {
+        invoice();
+
+        mockMvc.perform(get("/api/dashboard/summary").param("fresh", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlStatisticsFilter.STATEMENTS_HEADER))
+                .andExpect(header().exists(SqlStatisticsFilter.TIME_HEADER));
+
+        assertTrue(meterRegistry.get("billing.request.sql.statements")
+                .tag("uri", "/api/dashboard/summary").summary().totalAmount() > 1);
+        assertTrue(output.getOut().contains("SQL statement budget exceeded: method=GET uri=/api/dashboard/summary"));
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("billing_request_sql_statements_count{")))
+                .andExpect(content().string(containsString("billing_request_sql_time_seconds_sum{")));
+    }
+
+    private Invoice invoice() {
+        Customer customer = new Customer();
+        customer.setName("Metrics Customer");
+        customer.setEmail("metrics-" + System.nanoTime() + "@example.com");
+        customer = customerRepository.save(customer);
+
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        return invoiceRepository.save(invoice);
+    }
+
+    private static Payment payment(Invoice invoice, Money amount) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(amount);
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber("MET-" + System.nanoTime());
+        return payment;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.billingapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prod")
+class ProdProfileStartupTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("billing.data-dir", dataDir::toString);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void startsOnFileDatabaseMigratedByFlyway() {
+        assertTrue(Files.exists(dataDir.resolve("billingdb.mv.db")));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from \"flyway_schema_history\" where \"version\" = '1' and \"success\"", Integer.class));
+        assertEquals("262144", jdbcTemplate.queryForObject(
+                "select setting_value from information_schema.settings where setting_name = 'CACHE_SIZE'", String.class));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.billingapp;
+
+import com.example.billingapp.controller.SqlStatisticsFilter;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import com.example.billingapp.support.BillingFixtures;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 loads: each request's statement count, read from the
+ * X-SQL-Statements header, must not grow when the data set does.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class QueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private BillingFixtures fixtures;
+    private Invoice firstInvoice;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        invoiceRepository.deleteAll();
+        customerRepository.deleteAll();
+        fixtures = new BillingFixtures(customerRepository, invoiceRepository, paymentRepository, entityManager);
+        firstInvoice = fixtures.addOverdueInvoices(2, 2);
+    }
+
+    @Test
+    void invoiceEndpoints_StatementCountDoesNotGrowWithData() throws Exception {
+        assertStatementsConstant(() -> fixtures.addOverdueInvoices(5, 3),
+                "/api/invoices?limit=50", "/api/invoices/overdue");
+    }
+
+    @Test
+    void getInvoiceById_StatementCountDoesNotGrowWithPayments() throws Exception {
+        assertStatementsConstant(() -> fixtures.addPayments(firstInvoice, 10),
+                "/api/invoices/" + firstInvoice.getId());
+    }
+
+    @Test
+    void listPayments_StatementCountDoesNotGrowWithPage() throws Exception {
+        assertStatementsConstant(() -> fixtures.addOverdueInvoices(5, 3),
+                "/api/payments?limit=50");
+    }
+
+    @Test
+    void dashboardEndpoints_StatementCountDoesNotGrowWithData() throws Exception {
+        assertStatementsConstant(() -> fixtures.addOverdueInvoices(5, 3),
+                "/api/dashboard/summary?fresh=true", "/api/dashboard/top-customers?limit=50&fresh=true",
+                "/api/dashboard/monthly-revenue?fresh=true");
+    }
+
+    /**
+     * Counts the statements each request executes before and after growing the data set;
+     * a query per row shows up as growth.
+     */
+    private void assertStatementsConstant(Runnable growData, String... urls) throws Exception {
+        long[] before = new long[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            before[i] = sqlStatements(urls[i]);
+            assertTrue(before[i] > 0, urls[i] + " executed no counted statements");
+        }
+        growData.run();
+        for (int i = 0; i < urls.length; i++) {
+            assertEquals(before[i], sqlStatements(urls[i]), "Statement count of " + urls[i] + " grew with the data");
+        }
+    }
+
+    private long sqlStatements(String url) throws Exception {
+        entityManager.clear();
+        String statements = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlStatisticsFilter.TIME_HEADER))
+                .andReturn()
+                .getResponse()
+                .getHeader(SqlStatisticsFilter.STATEMENTS_HEADER);
+        return Long.parseLong(statements);
+    }
+}
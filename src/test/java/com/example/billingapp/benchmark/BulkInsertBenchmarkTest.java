@@ -0,0 +1,123 @@
+package com.example.billingapp.benchmark;
+
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures bulk onboarding throughput (customers plus one invoice each) with JDBC
+ * batching enabled versus one statement per row. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class BulkInsertBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        clearTables();
+    }
+
+    @Test
+    void bulkInsertThroughput_BatchedVersusUnbatched() {
+        insert(1, "warmup-unbatched");
+        insert(50, "warmup-batched");
+
+        Result unbatched = best(1, "unbatched");
+        Result batched = best(50, "batched");
+
+        System.out.printf("bulk insert %d customers + %d invoices%n", ROWS, ROWS);
+        System.out.printf("  batch size  1: %,8.0f rows/s, %,d JDBC statements%n", unbatched.rowsPerSecond(), unbatched.statements());
+        System.out.printf("  batch size 50: %,8.0f rows/s, %,d JDBC statements%n", batched.rowsPerSecond(), batched.statements());
+
+        assertTrue(batched.statements() < unbatched.statements());
+    }
+
+    private Result best(int batchSize, String label) {
+        Result best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            Result result = insert(batchSize, label + "-" + round);
+            if (best == null || result.rowsPerSecond() > best.rowsPerSecond()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private Result insert(int batchSize, String label) {
+        clearTables();
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<Customer> customers = new ArrayList<>(ROWS);
+            List<Invoice> invoices = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Customer customer = new Customer();
+                customer.setName("Customer " + i);
+                customer.setEmail(label + "-" + i + "@example.com");
+                customers.add(customer);
+
+                Invoice invoice = new Invoice();
+                invoice.setCustomer(customer);
+                invoice.setAmount(Money.ofMinorUnits(10_000 + i * 100L));
+                invoice.setDueDate(LocalDate.now().plusDays(30));
+                invoices.add(invoice);
+            }
+            customerRepository.saveAll(customers);
+            invoiceRepository.saveAll(invoices);
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(2 * ROWS / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private void clearTables() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    private record Result(double rowsPerSecond, long statements) {
+    }
+}
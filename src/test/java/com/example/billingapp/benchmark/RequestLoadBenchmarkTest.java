@@ -0,0 +1,176 @@
+package com.example.billingapp.benchmark;
+
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives concurrent clients against the payment list and overdue invoice endpoints and
+ * reports throughput and latency percentiles. Compare the two thread modes with
+ * {@code mvn test -Pbenchmark -Dtest=RequestLoadBenchmarkTest} and the same command with
+ * {@code -Dbilling.threads.virtual=true}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+class RequestLoadBenchmarkTest {
+
+    private static final int CLIENTS = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${billing.threads.virtual}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(16))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        clearTables();
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Customer customer = new Customer();
+            customer.setName("Load Customer " + i);
+            customer.setEmail("load-" + i + "@example.com");
+            customers.add(customer);
+        }
+        customerRepository.saveAll(customers);
+
+        List<Invoice> invoices = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setCustomer(customers.get(i % customers.size()));
+            invoice.setAmount(Money.of("1000.00"));
+            invoice.setDueDate(LocalDate.now().minusDays(1 + i % 60));
+            invoices.add(invoice);
+            for (int j = 0; j < 2; j++) {
+                Payment payment = new Payment();
+                payment.setInvoice(invoice);
+                payment.setAmount(Money.of("100.00"));
+                payment.setPaymentDate(LocalDate.now().minusDays(j));
+                payment.setTransactionNumber("LOAD-" + i + "-" + j);
+                payments.add(payment);
+            }
+        }
+        invoiceRepository.saveAll(invoices);
+        paymentRepository.saveAll(payments);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    @Test
+    void paymentList_Throughput() throws Exception {
+        report("GET /api/payments?limit=50", run("/api/payments?limit=50"));
+    }
+
+    @Test
+    void overdueInvoices_Throughput() throws Exception {
+        report("GET /api/invoices/overdue", run("/api/invoices/overdue"));
+    }
+
+    private Result run(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        drive(request, WARMUP);
+        return drive(request, MEASUREMENT);
+    }
+
+    private Result drive(HttpRequest request, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertEquals(200, response.statusCode());
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length / (duration.toNanos() / 1e9), percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private void report(String endpoint, Result result) {
+        System.out.printf("%s, %s threads, %d clients: %,8.0f req/s, p50 %6.1f ms, p99 %6.1f ms%n",
+                endpoint, virtualThreads ? "virtual" : "platform", CLIENTS,
+                result.requestsPerSecond(), result.p50Millis(), result.p99Millis());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * (sorted.length - 1)))] / 1e6;
+    }
+
+    private void clearTables() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis) {
+    }
+}
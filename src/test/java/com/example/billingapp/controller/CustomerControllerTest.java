@@ -1,6 +1,7 @@
 package com.example.billingapp.controller;
 
 import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -62,15 +63,34 @@ class CustomerControllerTest {
         customer2.setName("Jane Smith");
 
         List<Customer> customers = Arrays.asList(customer1, customer2);
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomers(null, 100)).thenReturn(new CursorPage<>(customers, null));
 
         mockMvc.perform(get("/api/customers"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[1].id").value(2L));
 
-        verify(customerService).getAllCustomers();
+        verify(customerService).getCustomers(null, 100);
+    }
+
+    @Test
+    void getAllCustomers_WithCursor_ReturnsNextCursorHeader() throws Exception {
+        Customer customer = new Customer();
+        customer.setId(11L);
+        customer.setName("John Doe");
+
+        when(customerService.getCustomers(10L, 1)).thenReturn(new CursorPage<>(List.of(customer), 11L));
+
+        mockMvc.perform(get("/api/customers")
+                        .param("cursor", "10")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "11"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(customerService).getCustomers(10L, 1);
     }
 
     @Test
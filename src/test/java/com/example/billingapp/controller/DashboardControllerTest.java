@@ -1,6 +1,11 @@
 package com.example.billingapp.controller;
 
+import com.example.billingapp.model.Money;
+import com.example.billingapp.service.DashboardCache;
 import com.example.billingapp.service.DashboardService;
+import com.example.billingapp.service.DashboardSnapshots;
+import com.example.billingapp.service.DashboardSnapshots.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -8,9 +13,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +32,17 @@ class DashboardControllerTest {
     @MockBean
     private DashboardService dashboardService;
 
+    @MockBean
+    private DashboardCache dashboardCache;
+
+    @MockBean
+    private DashboardSnapshots dashboardSnapshots;
+
+    @BeforeEach
+    void passThroughCache() {
+        when(dashboardCache.get(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
     @Test
     void getSummary_Success() throws Exception {
         Map<String, Object> summary = new HashMap<>();
@@ -67,17 +86,47 @@ class DashboardControllerTest {
         List<Map<String, Object>> topCustomers = new ArrayList<>();
         Map<String, Object> customer1 = new HashMap<>();
         customer1.put("customerName", "John Doe");
-        customer1.put("totalPaid", 5000.0);
+        customer1.put("totalPaid", Money.of("5000.00"));
         topCustomers.add(customer1);
 
-        when(dashboardService.getTopCustomers(any(), any())).thenReturn(topCustomers);
+        when(dashboardService.getTopCustomers(any(), any(), anyInt())).thenReturn(topCustomers);
 
         mockMvc.perform(get("/api/dashboard/top-customers"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].customerName").value("John Doe"));
 
-        verify(dashboardService).getTopCustomers(null, null);
+        verify(dashboardService).getTopCustomers(null, null, 5);
+    }
+
+    @Test
+    void getTopCustomers_WithLimit_PassesLimit() throws Exception {
+        when(dashboardService.getTopCustomers(any(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/dashboard/top-customers").param("limit", "20"))
+                .andExpect(status().isOk());
+
+        verify(dashboardService).getTopCustomers(null, null, 20);
+    }
+
+    @Test
+    void getTopCustomers_LimitAboveMaximum_SharesCacheKeyOfMaximum() throws Exception {
+        when(dashboardService.getTopCustomers(any(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/dashboard/top-customers").param("limit", "1000000"))
+                .andExpect(status().isOk());
+
+        verify(dashboardCache).get(eq(new DashboardCache.Key(DashboardCache.View.TOP_CUSTOMERS, null, null,
+                DashboardService.MAX_TOP_CUSTOMERS)), any());
+        verify(dashboardService).getTopCustomers(null, null, DashboardService.MAX_TOP_CUSTOMERS);
+    }
+
+    @Test
+    void getTopCustomers_NonPositiveLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/dashboard/top-customers").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(dashboardService);
     }
 
     @Test
@@ -85,7 +134,7 @@ class DashboardControllerTest {
         List<Map<String, Object>> monthlyRevenue = new ArrayList<>();
         Map<String, Object> month1 = new HashMap<>();
         month1.put("month", "2026-02");
-        month1.put("total", 10000.0);
+        month1.put("total", Money.of("10000.00"));
         monthlyRevenue.add(month1);
 
         when(dashboardService.getMonthlyRevenue(any(), any())).thenReturn(monthlyRevenue);
@@ -97,4 +146,32 @@ class DashboardControllerTest {
 
         verify(dashboardService).getMonthlyRevenue(null, null);
     }
+
+    @Test
+    void getSummary_SnapshotAvailable_ServesSnapshotWithTimestamp() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2026, 3, 1, 12, 0, 5);
+        Snapshot snapshot = new Snapshot(asOf, null, null, 3, 4, Money.of("1000.00"), Money.of("600.00"), List.of(), List.of());
+        when(dashboardSnapshots.find(null, null)).thenReturn(Optional.of(snapshot));
+
+        mockMvc.perform(get("/api/dashboard/summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-At", "2026-03-01T12:00:05"))
+                .andExpect(jsonPath("$.totalCustomers").value(3))
+                .andExpect(jsonPath("$.outstandingBalance").value(400.0));
+
+        verifyNoInteractions(dashboardService, dashboardCache);
+    }
+
+    @Test
+    void getSummary_Fresh_BypassesSnapshotAndCache() throws Exception {
+        when(dashboardService.getSummary(any(), any())).thenReturn(Map.of("totalCustomers", 7L));
+
+        mockMvc.perform(get("/api/dashboard/summary").param("fresh", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Snapshot-At"))
+                .andExpect(jsonPath("$.totalCustomers").value(7));
+
+        verify(dashboardService).getSummary(null, null);
+        verifyNoInteractions(dashboardSnapshots, dashboardCache);
+    }
 }
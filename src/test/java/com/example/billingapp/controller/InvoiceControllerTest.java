@@ -1,7 +1,9 @@
 package com.example.billingapp.controller;
 
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
 import com.example.billingapp.model.OverdueInvoiceDTO;
 import com.example.billingapp.service.InvoiceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,11 +13,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,7 +47,7 @@ class InvoiceControllerTest {
         Invoice invoice = new Invoice();
         invoice.setId(1L);
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
 
         when(invoiceService.createInvoice(any(Invoice.class))).thenReturn(invoice);
@@ -60,27 +66,28 @@ class InvoiceControllerTest {
     void getAllInvoices_Success() throws Exception {
         Invoice invoice1 = new Invoice();
         invoice1.setId(1L);
-        invoice1.setAmount(1000.0);
+        invoice1.setAmount(Money.of("1000.00"));
 
         Invoice invoice2 = new Invoice();
         invoice2.setId(2L);
-        invoice2.setAmount(2000.0);
+        invoice2.setAmount(Money.of("2000.00"));
 
         List<Invoice> invoices = Arrays.asList(invoice1, invoice2);
-        when(invoiceService.getAllInvoices()).thenReturn(invoices);
+        when(invoiceService.getInvoices(null, 100)).thenReturn(new CursorPage<>(invoices, 2L));
 
         mockMvc.perform(get("/api/invoices"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2"))
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(invoiceService).getAllInvoices();
+        verify(invoiceService).getInvoices(null, 100);
     }
 
     @Test
     void getInvoiceById_Success() throws Exception {
         Invoice invoice = new Invoice();
         invoice.setId(1L);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
 
         when(invoiceService.getInvoiceById(1L)).thenReturn(invoice);
 
@@ -106,7 +113,7 @@ class InvoiceControllerTest {
         OverdueInvoiceDTO dto = new OverdueInvoiceDTO();
         dto.setInvoiceNumber("INV1");
         dto.setCustomerName("John Doe");
-        dto.setAmount(1000.0);
+        dto.setAmount(Money.of("1000.00"));
 
         List<OverdueInvoiceDTO> overdueInvoices = Arrays.asList(dto);
         when(invoiceService.getOverdueInvoices(any(), any(), any())).thenReturn(overdueInvoices);
@@ -135,4 +142,39 @@ class InvoiceControllerTest {
 
         verify(invoiceService).getOverdueInvoices(eq(1L), eq(startDate), eq(endDate));
     }
+
+    @Test
+    void exportInvoices_StreamsNdjson() throws Exception {
+        Invoice invoice1 = new Invoice();
+        invoice1.setId(1L);
+        invoice1.setAmount(Money.of("1000.00"));
+
+        Invoice invoice2 = new Invoice();
+        invoice2.setId(2L);
+        invoice2.setAmount(Money.of("2000.00"));
+
+        doAnswer(invocation -> {
+            Consumer<Invoice> sink = invocation.getArgument(0);
+            sink.accept(invoice1);
+            sink.accept(invoice2);
+            return null;
+        }).when(invoiceService).exportInvoices(any());
+
+        MvcResult result = mockMvc.perform(get("/api/invoices/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt());
+        assertEquals(2000.0, objectMapper.readTree(lines[1]).get("amount").asDouble());
+        assertFalse(objectMapper.readTree(lines[0]).has("payments"));
+    }
 }
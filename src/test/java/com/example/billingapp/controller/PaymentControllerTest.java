@@ -1,21 +1,30 @@
 package com.example.billingapp.controller;
 
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
 import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.PaymentBatchResultDTO;
 import com.example.billingapp.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,7 +49,7 @@ class PaymentControllerTest {
         Payment payment = new Payment();
         payment.setId(1L);
         payment.setInvoice(invoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-001");
 
@@ -57,31 +66,85 @@ class PaymentControllerTest {
         verify(paymentService).createPayment(any(Payment.class));
     }
 
+    @Test
+    void createPayment_FractionOfACent_Returns400() throws Exception {
+        mockMvc.perform(post("/api/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"invoice\":{\"id\":1},\"amount\":10.005,\"paymentDate\":\"2026-01-01\","
+                                + "\"transactionNumber\":\"TXN-001\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("at most 2 decimal places")));
+
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void createPayments_Batch_ReturnsResultPerRow() throws Exception {
+        Invoice invoice = new Invoice();
+        invoice.setId(1L);
+
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of("500.00"));
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber("TXN-001");
+        payment.setId(10L);
+
+        List<PaymentBatchResultDTO> results = List.of(
+                PaymentBatchResultDTO.created(0, payment),
+                PaymentBatchResultDTO.rejected(1, payment, "Transaction number must be unique"));
+        when(paymentService.createPayments(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/api/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(payment, payment))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].paymentId").value(10))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].error").value("Transaction number must be unique"));
+
+        verify(paymentService).createPayments(anyList());
+    }
+
+    @Test
+    void createPayments_ConstraintViolation_ReturnsConflict() throws Exception {
+        when(paymentService.createPayments(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        mockMvc.perform(post("/api/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void getAllPayments_Success() throws Exception {
         Payment payment1 = new Payment();
         payment1.setId(1L);
-        payment1.setAmount(500.0);
+        payment1.setAmount(Money.of("500.00"));
 
         Payment payment2 = new Payment();
         payment2.setId(2L);
-        payment2.setAmount(300.0);
+        payment2.setAmount(Money.of("300.00"));
 
         List<Payment> payments = Arrays.asList(payment1, payment2);
-        when(paymentService.getAllPayments()).thenReturn(payments);
+        when(paymentService.getPayments(1L, 2)).thenReturn(new CursorPage<>(payments, null));
 
-        mockMvc.perform(get("/api/payments"))
+        mockMvc.perform(get("/api/payments")
+                        .param("cursor", "1")
+                        .param("limit", "2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(paymentService).getAllPayments();
+        verify(paymentService).getPayments(1L, 2);
     }
 
     @Test
     void getPaymentById_Success() throws Exception {
         Payment payment = new Payment();
         payment.setId(1L);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
 
         when(paymentService.getPaymentById(1L)).thenReturn(payment);
 
@@ -92,4 +155,33 @@ class PaymentControllerTest {
 
         verify(paymentService).getPaymentById(1L);
     }
+
+    @Test
+    void exportPayments_StreamsNdjson() throws Exception {
+        Invoice invoice = new Invoice();
+        invoice.setId(7L);
+
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of("500.00"));
+        payment.setTransactionNumber("TXN-001");
+
+        doAnswer(invocation -> {
+            Consumer<Payment> sink = invocation.getArgument(0);
+            sink.accept(payment);
+            return null;
+        }).when(paymentService).exportPayments(any());
+
+        MvcResult result = mockMvc.perform(get("/api/payments/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"transactionNumber\":\"TXN-001\"")))
+                .andExpect(content().string(containsString("\"invoice\":{\"id\":7}")))
+                .andExpect(content().string(endsWith("\n")));
+    }
 }
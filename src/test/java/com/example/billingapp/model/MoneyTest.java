@@ -0,0 +1,40 @@
+package com.example.billingapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void plus_IsExact() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of("0.10"));
+        }
+
+        assertEquals(Money.of("1.00"), total);
+        assertEquals(Money.of("0.30"), Money.of("0.1").plus(Money.of("0.2")));
+    }
+
+    @Test
+    void of_FractionOfACent_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("10.005"));
+        assertEquals(1005, Money.of("10.050").minorUnits());
+    }
+
+    @Test
+    void json_IsADecimalNumberWithTwoPlaces() throws Exception {
+        assertEquals("1234.50", objectMapper.writeValueAsString(Money.ofMinorUnits(123450)));
+        assertEquals(Money.ofMinorUnits(123450), objectMapper.readValue("1234.5", Money.class));
+        assertEquals(Money.ofMinorUnits(1000), objectMapper.readValue("10", Money.class));
+        assertEquals(new BigDecimal("0.01"), Money.ofMinorUnits(1).toBigDecimal());
+        assertThrows(ValueInstantiationException.class, () -> objectMapper.readValue("0.001", Money.class));
+    }
+}
@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,4 +97,51 @@ class CustomerRepositoryTest {
         Optional<Customer> found = customerRepository.findById(saved.getId());
         assertFalse(found.isPresent());
     }
+
+    @Test
+    void countCreatedBetween_OnlyCountsCustomersInRange() {
+        Customer oldCustomer = new Customer();
+        oldCustomer.setName("John Doe");
+        oldCustomer.setEmail("john@example.com");
+        entityManager.persistAndFlush(oldCustomer);
+        entityManager.getEntityManager()
+                .createQuery("update Customer c set c.createdAt = :createdAt where c.id = :id")
+                .setParameter("createdAt", LocalDateTime.now().minusDays(40))
+                .setParameter("id", oldCustomer.getId())
+                .executeUpdate();
+
+        Customer newCustomer = new Customer();
+        newCustomer.setName("Jane Smith");
+        newCustomer.setEmail("jane@example.com");
+        entityManager.persistAndFlush(newCustomer);
+
+        long count = customerRepository.countCreatedBetween(
+                LocalDateTime.now().minusDays(30), LocalDateTime.now().plusDays(1));
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void findByIdGreaterThan_ReturnsRowsAfterCursorInIdOrder() {
+        Customer customer1 = new Customer();
+        customer1.setName("John Doe");
+        customer1.setEmail("john@example.com");
+
+        Customer customer2 = new Customer();
+        customer2.setName("Jane Smith");
+        customer2.setEmail("jane@example.com");
+
+        Customer customer3 = new Customer();
+        customer3.setName("Jim Beam");
+        customer3.setEmail("jim@example.com");
+
+        Customer first = entityManager.persistAndFlush(customer1);
+        Customer second = entityManager.persistAndFlush(customer2);
+        entityManager.persistAndFlush(customer3);
+
+        List<Customer> page = customerRepository.findByIdGreaterThanOrderByIdAsc(first.getId(), PageRequest.of(0, 1));
+
+        assertEquals(1, page.size());
+        assertEquals(second.getId(), page.get(0).getId());
+    }
 }
@@ -2,6 +2,12 @@ package com.example.billingapp.repository;
 
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.InvoiceBalanceDTO;
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.OverdueInvoiceDTO;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.enums.InvoiceStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,13 +46,13 @@ class InvoiceRepositoryTest {
     void saveInvoice_Success() {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
 
         Invoice saved = invoiceRepository.save(invoice);
 
         assertNotNull(saved.getId());
-        assertEquals(1000.0, saved.getAmount());
+        assertEquals(Money.of("1000.00"), saved.getAmount());
         assertEquals(customer.getId(), saved.getCustomer().getId());
     }
 
@@ -53,26 +60,26 @@ class InvoiceRepositoryTest {
     void findById_Success() {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         Invoice saved = entityManager.persistAndFlush(invoice);
 
         Invoice found = invoiceRepository.findById(saved.getId()).orElse(null);
 
         assertNotNull(found);
-        assertEquals(1000.0, found.getAmount());
+        assertEquals(Money.of("1000.00"), found.getAmount());
     }
 
     @Test
     void findAll_Success() {
         Invoice invoice1 = new Invoice();
         invoice1.setCustomer(customer);
-        invoice1.setAmount(1000.0);
+        invoice1.setAmount(Money.of("1000.00"));
         invoice1.setDueDate(LocalDate.now().plusDays(30));
 
         Invoice invoice2 = new Invoice();
         invoice2.setCustomer(customer);
-        invoice2.setAmount(2000.0);
+        invoice2.setAmount(Money.of("2000.00"));
         invoice2.setDueDate(LocalDate.now().plusDays(60));
 
         entityManager.persistAndFlush(invoice1);
@@ -86,7 +93,7 @@ class InvoiceRepositoryTest {
     void deleteInvoice_Success() {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         Invoice saved = entityManager.persistAndFlush(invoice);
 
@@ -95,4 +102,172 @@ class InvoiceRepositoryTest {
 
         assertFalse(invoiceRepository.findById(saved.getId()).isPresent());
     }
+
+    @Test
+    void summarizeCreatedBetween_ReturnsCountAndSum() {
+        Invoice invoice1 = new Invoice();
+        invoice1.setCustomer(customer);
+        invoice1.setAmount(Money.of("1000.00"));
+        invoice1.setDueDate(LocalDate.now().plusDays(30));
+
+        Invoice invoice2 = new Invoice();
+        invoice2.setCustomer(customer);
+        invoice2.setAmount(Money.of("2000.00"));
+        invoice2.setDueDate(LocalDate.now().plusDays(60));
+
+        entityManager.persistAndFlush(invoice1);
+        entityManager.persistAndFlush(invoice2);
+        entityManager.getEntityManager()
+                .createQuery("update Invoice i set i.createdAt = :createdAt where i.id = :id")
+                .setParameter("createdAt", LocalDateTime.now().minusDays(40))
+                .setParameter("id", invoice2.getId())
+                .executeUpdate();
+
+        InvoiceTotalsDTO totals = invoiceRepository.summarizeCreatedBetween(
+                LocalDateTime.now().minusDays(30), LocalDateTime.now().plusDays(1));
+
+        assertEquals(1L, totals.getCount());
+        assertEquals(Money.of("1000.00"), totals.getTotalAmount());
+    }
+
+    @Test
+    void summarizeCreatedBetween_NoInvoices_ReturnsZero() {
+        InvoiceTotalsDTO totals = invoiceRepository.summarizeCreatedBetween(
+                LocalDateTime.now().minusDays(30), LocalDateTime.now().plusDays(1));
+
+        assertEquals(0L, totals.getCount());
+        assertEquals(Money.of("0.00"), totals.getTotalAmount());
+    }
+
+    @Test
+    void hasPayments_ReflectsPaymentRows() {
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        Invoice saved = entityManager.persistAndFlush(invoice);
+
+        assertFalse(invoiceRepository.hasPayments(saved.getId()));
+
+        Payment payment = new Payment();
+        payment.setInvoice(saved);
+        payment.setAmount(Money.of("400.00"));
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber("TXN-001");
+        entityManager.persistAndFlush(payment);
+
+        assertTrue(invoiceRepository.hasPayments(saved.getId()));
+    }
+
+    @Test
+    void findBalanceMismatches_ReportsInvoicesOutOfSyncWithPayments() {
+        Invoice inSync = new Invoice();
+        inSync.setCustomer(customer);
+        inSync.setAmount(Money.of("1000.00"));
+        inSync.setDueDate(LocalDate.now().plusDays(30));
+        inSync.applyPayment(Money.of("400.00"));
+        inSync = entityManager.persistAndFlush(inSync);
+
+        Invoice outOfSync = new Invoice();
+        outOfSync.setCustomer(customer);
+        outOfSync.setAmount(Money.of("1000.00"));
+        outOfSync.setDueDate(LocalDate.now().plusDays(30));
+        outOfSync = entityManager.persistAndFlush(outOfSync);
+
+        Payment payment1 = new Payment();
+        payment1.setInvoice(inSync);
+        payment1.setAmount(Money.of("400.00"));
+        payment1.setPaymentDate(LocalDate.now());
+        payment1.setTransactionNumber("TXN-001");
+        entityManager.persist(payment1);
+
+        Payment payment2 = new Payment();
+        payment2.setInvoice(outOfSync);
+        payment2.setAmount(Money.of("1000.00"));
+        payment2.setPaymentDate(LocalDate.now());
+        payment2.setTransactionNumber("TXN-002");
+        entityManager.persistAndFlush(payment2);
+
+        List<InvoiceBalanceDTO> mismatches = invoiceRepository.findBalanceMismatches();
+
+        assertEquals(1, mismatches.size());
+        assertEquals(outOfSync.getId(), mismatches.get(0).getInvoiceId());
+        assertEquals(Money.of("1000.00"), mismatches.get(0).getActualAmountPaid());
+        assertEquals(InvoiceStatus.PENDING, mismatches.get(0).getStoredStatus());
+    }
+
+    @Test
+    void findOverdue_ReturnsUnpaidInvoicesPastDueDate() {
+        Invoice overdue = new Invoice();
+        overdue.setCustomer(customer);
+        overdue.setAmount(Money.of("1000.00"));
+        overdue.setDueDate(LocalDate.now().minusDays(5));
+        overdue.applyPayment(Money.of("250.00"));
+        entityManager.persist(overdue);
+
+        Invoice paid = new Invoice();
+        paid.setCustomer(customer);
+        paid.setAmount(Money.of("1000.00"));
+        paid.setDueDate(LocalDate.now().minusDays(5));
+        paid.applyPayment(Money.of("1000.00"));
+        entityManager.persist(paid);
+
+        Invoice notDue = new Invoice();
+        notDue.setCustomer(customer);
+        notDue.setAmount(Money.of("1000.00"));
+        notDue.setDueDate(LocalDate.now().plusDays(5));
+        entityManager.persistAndFlush(notDue);
+
+        List<OverdueInvoiceDTO> result = invoiceRepository.findOverdue(LocalDate.now(), null,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+
+        assertEquals(1, result.size());
+        OverdueInvoiceDTO dto = result.get(0);
+        assertEquals("INV" + overdue.getId(), dto.getInvoiceNumber());
+        assertEquals("John Doe", dto.getCustomerName());
+        assertEquals(Money.of("750.00"), dto.getBalance());
+        assertEquals(5, dto.getDaysOverdue());
+        assertEquals("PARTIALLY_PAID", dto.getStatus());
+    }
+
+    @Test
+    void findOverdue_FiltersByCustomer() {
+        Customer otherCustomer = new Customer();
+        otherCustomer.setName("Jane Smith");
+        otherCustomer.setEmail("jane@example.com");
+        entityManager.persist(otherCustomer);
+
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(otherCustomer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().minusDays(5));
+        entityManager.persistAndFlush(invoice);
+
+        assertTrue(invoiceRepository.findOverdue(LocalDate.now(), customer.getId(),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)).isEmpty());
+        assertEquals(1, invoiceRepository.findOverdue(LocalDate.now(), otherCustomer.getId(),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)).size());
+    }
+
+    @Test
+    void applyPayment_AddsToBalanceUntilInvoiceIsPaid() {
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        Long id = entityManager.persistAndFlush(invoice).getId();
+
+        assertEquals(1, invoiceRepository.applyPayment(id, 60000));
+        assertEquals(0, invoiceRepository.applyPayment(id, 50000));
+        entityManager.clear();
+        Invoice partiallyPaid = invoiceRepository.findById(id).orElseThrow();
+        assertEquals(Money.of("600.00"), partiallyPaid.getAmountPaid());
+        assertEquals(InvoiceStatus.PARTIALLY_PAID, partiallyPaid.getStatus());
+
+        assertEquals(1, invoiceRepository.applyPayment(id, 40000));
+        entityManager.clear();
+        Invoice paid = invoiceRepository.findById(id).orElseThrow();
+        assertEquals(Money.of("1000.00"), paid.getAmountPaid());
+        assertEquals(InvoiceStatus.PAID, paid.getStatus());
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.billingapp.repository;
+
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
+import com.example.billingapp.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class MonthlyRevenueRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MonthlyRevenueRepository monthlyRevenueRepository;
+
+    @Test
+    void addToMonth_AccumulatesOnExistingStripeOnly() {
+        LocalDate march = LocalDate.of(2024, 3, 1);
+
+        assertEquals(0, monthlyRevenueRepository.addToMonth(march, 3, 10000));
+        assertEquals(MonthlyRevenue.STRIPES, monthlyRevenueRepository.insertMissingStripes(march, MonthlyRevenue.STRIPES));
+        monthlyRevenueRepository.insertMissingStripes(LocalDate.of(2024, 4, 1), MonthlyRevenue.STRIPES);
+        assertEquals(1, monthlyRevenueRepository.addToMonth(march, 3, 10000));
+        monthlyRevenueRepository.addToMonth(march, 7, 5000);
+        monthlyRevenueRepository.addToMonth(LocalDate.of(2024, 4, 1), 3, 1000);
+        entityManager.clear();
+
+        List<MonthlyRevenue> stripes = monthlyRevenueRepository.findByMonthStartBetweenOrderByMonthStartAsc(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 1));
+        assertEquals(2 * MonthlyRevenue.STRIPES, stripes.size());
+        assertEquals(Money.of("150.00"), total(stripes, march));
+        assertEquals(Money.of("10.00"), total(stripes, LocalDate.of(2024, 4, 1)));
+        assertEquals(Money.of("100.00"),
+                monthlyRevenueRepository.findById(new MonthlyRevenue.Cell(march, 3)).orElseThrow().getTotal());
+    }
+
+    @Test
+    void insertMissingStripes_AddsOnlyTheMissingRows() {
+        LocalDate march = LocalDate.of(2024, 3, 1);
+        MonthlyRevenue legacy = new MonthlyRevenue();
+        legacy.setMonthStart(march);
+        legacy.setStripe(0);
+        legacy.setTotal(Money.of("5.00"));
+        entityManager.persistAndFlush(legacy);
+
+        assertEquals(MonthlyRevenue.STRIPES - 1, monthlyRevenueRepository.insertMissingStripes(march, MonthlyRevenue.STRIPES));
+        assertEquals(0, monthlyRevenueRepository.insertMissingStripes(march, MonthlyRevenue.STRIPES));
+        entityManager.clear();
+
+        assertEquals(MonthlyRevenue.STRIPES, monthlyRevenueRepository.countByMonthStart(march));
+        assertEquals(Money.of("5.00"), total(monthlyRevenueRepository.findAll(), march));
+    }
+
+    @Test
+    void rebuildFromPayments_GroupsPaymentsByMonthAndStripe() {
+        Customer customer = new Customer();
+        customer.setName("John Doe");
+        customer.setEmail("john@example.com");
+        entityManager.persist(customer);
+
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        entityManager.persist(invoice);
+
+        Invoice other = new Invoice();
+        other.setCustomer(customer);
+        other.setAmount(Money.of("1000.00"));
+        other.setDueDate(LocalDate.now().plusDays(30));
+        entityManager.persist(other);
+
+        persistPayment(invoice, "TXN-1", "100.00", LocalDate.of(2024, 1, 5));
+        persistPayment(invoice, "TXN-2", "200.00", LocalDate.of(2024, 1, 31));
+        persistPayment(other, "TXN-3", "50.00", LocalDate.of(2024, 1, 15));
+        persistPayment(invoice, "TXN-4", "300.00", LocalDate.of(2024, 2, 1));
+        entityManager.flush();
+
+        int rows = monthlyRevenueRepository.rebuildFromPayments(MonthlyRevenue.STRIPES);
+        entityManager.clear();
+
+        assertEquals(3, rows);
+        LocalDate january = LocalDate.of(2024, 1, 1);
+        assertEquals(Money.of("300.00"), monthlyRevenueRepository.findById(
+                MonthlyRevenue.Cell.of(january, invoice.getId())).orElseThrow().getTotal());
+        assertEquals(Money.of("50.00"), monthlyRevenueRepository.findById(
+                MonthlyRevenue.Cell.of(january, other.getId())).orElseThrow().getTotal());
+        assertEquals(Money.of("300.00"), total(monthlyRevenueRepository.findAll(), LocalDate.of(2024, 2, 1)));
+    }
+
+    private static Money total(List<MonthlyRevenue> stripes, LocalDate monthStart) {
+        return stripes.stream()
+                .filter(stripe -> stripe.getMonthStart().equals(monthStart))
+                .map(MonthlyRevenue::getTotal)
+                .reduce(Money.ZERO, Money::plus);
+    }
+
+    private void persistPayment(Invoice invoice, String transactionNumber, String amount, LocalDate date) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of(amount));
+        payment.setPaymentDate(date);
+        payment.setTransactionNumber(transactionNumber);
+        entityManager.persist(payment);
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.billingapp.repository;
 
 import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.CustomerTotalDTO;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
 import com.example.billingapp.model.Payment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,7 +45,7 @@ class PaymentRepositoryTest {
 
         invoice = new Invoice();
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         invoice = entityManager.persistAndFlush(invoice);
     }
@@ -49,14 +54,14 @@ class PaymentRepositoryTest {
     void savePayment_Success() {
         Payment payment = new Payment();
         payment.setInvoice(invoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-001");
 
         Payment saved = paymentRepository.save(payment);
 
         assertNotNull(saved.getId());
-        assertEquals(500.0, saved.getAmount());
+        assertEquals(Money.of("500.00"), saved.getAmount());
         assertEquals("TXN-001", saved.getTransactionNumber());
     }
 
@@ -64,7 +69,7 @@ class PaymentRepositoryTest {
     void existsByTransactionNumber_True() {
         Payment payment = new Payment();
         payment.setInvoice(invoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-001");
         entityManager.persistAndFlush(payment);
@@ -81,11 +86,25 @@ class PaymentRepositoryTest {
         assertFalse(exists);
     }
 
+    @Test
+    void findExistingTransactionNumbers_ReturnsOnlyStoredNumbers() {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of("500.00"));
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber("TXN-001");
+        entityManager.persistAndFlush(payment);
+
+        List<String> existing = paymentRepository.findExistingTransactionNumbers(List.of("TXN-001", "TXN-002"));
+
+        assertEquals(List.of("TXN-001"), existing);
+    }
+
     @Test
     void findById_Success() {
         Payment payment = new Payment();
         payment.setInvoice(invoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-001");
         Payment saved = entityManager.persistAndFlush(payment);
@@ -93,6 +112,103 @@ class PaymentRepositoryTest {
         Payment found = paymentRepository.findById(saved.getId()).orElse(null);
 
         assertNotNull(found);
-        assertEquals(500.0, found.getAmount());
+        assertEquals(Money.of("500.00"), found.getAmount());
+    }
+
+    @Test
+    void sumAmountPaidBetween_OnlySumsPaymentsInRange() {
+        Payment payment1 = new Payment();
+        payment1.setInvoice(invoice);
+        payment1.setAmount(Money.of("500.00"));
+        payment1.setPaymentDate(LocalDate.now());
+        payment1.setTransactionNumber("TXN-001");
+        entityManager.persistAndFlush(payment1);
+
+        Payment payment2 = new Payment();
+        payment2.setInvoice(invoice);
+        payment2.setAmount(Money.of("200.00"));
+        payment2.setPaymentDate(LocalDate.now().minusDays(40));
+        payment2.setTransactionNumber("TXN-002");
+        entityManager.persistAndFlush(payment2);
+
+        long total = paymentRepository.sumAmountPaidBetween(LocalDate.now().minusDays(30), LocalDate.now());
+
+        assertEquals(50000, total);
+    }
+
+    @Test
+    void streamAll_ReturnsPaymentsInIdOrder() {
+        Payment payment1 = new Payment();
+        payment1.setInvoice(invoice);
+        payment1.setAmount(Money.of("500.00"));
+        payment1.setPaymentDate(LocalDate.now());
+        payment1.setTransactionNumber("TXN-001");
+        entityManager.persist(payment1);
+
+        Payment payment2 = new Payment();
+        payment2.setInvoice(invoice);
+        payment2.setAmount(Money.of("200.00"));
+        payment2.setPaymentDate(LocalDate.now());
+        payment2.setTransactionNumber("TXN-002");
+        entityManager.persistAndFlush(payment2);
+
+        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+            assertEquals(List.of("TXN-001", "TXN-002"),
+                    payments.map(Payment::getTransactionNumber).toList());
+        }
+    }
+
+    @Test
+    void findTopCustomers_GroupsByCustomerAndOrdersByTotal() {
+        Customer other = new Customer();
+        other.setName("Jane Smith");
+        other.setEmail("jane@example.com");
+        entityManager.persist(other);
+
+        Invoice otherInvoice = new Invoice();
+        otherInvoice.setCustomer(other);
+        otherInvoice.setAmount(Money.of("1000.00"));
+        otherInvoice.setDueDate(LocalDate.now().plusDays(30));
+        entityManager.persist(otherInvoice);
+
+        Payment payment1 = new Payment();
+        payment1.setInvoice(invoice);
+        payment1.setAmount(Money.of("300.00"));
+        payment1.setPaymentDate(LocalDate.now());
+        payment1.setTransactionNumber("TXN-001");
+        entityManager.persist(payment1);
+
+        Payment payment2 = new Payment();
+        payment2.setInvoice(otherInvoice);
+        payment2.setAmount(Money.of("200.00"));
+        payment2.setPaymentDate(LocalDate.now());
+        payment2.setTransactionNumber("TXN-002");
+        entityManager.persist(payment2);
+
+        Payment payment3 = new Payment();
+        payment3.setInvoice(otherInvoice);
+        payment3.setAmount(Money.of("250.00"));
+        payment3.setPaymentDate(LocalDate.now());
+        payment3.setTransactionNumber("TXN-003");
+        entityManager.persist(payment3);
+
+        Payment outOfRange = new Payment();
+        outOfRange.setInvoice(invoice);
+        outOfRange.setAmount(Money.of("900.00"));
+        outOfRange.setPaymentDate(LocalDate.now().minusDays(40));
+        outOfRange.setTransactionNumber("TXN-004");
+        entityManager.persistAndFlush(outOfRange);
+
+        List<CustomerTotalDTO> top = paymentRepository.findTopCustomers(
+                LocalDate.now().minusDays(30), LocalDate.now(), PageRequest.of(0, 1));
+
+        assertEquals(1, top.size());
+        assertEquals("Jane Smith", top.get(0).getCustomerName());
+        assertEquals(Money.of("450.00"), top.get(0).getTotalPaid());
+
+        try (Stream<CustomerTotalDTO> totals = paymentRepository.streamCustomerTotals(
+                LocalDate.now().minusDays(30), LocalDate.now())) {
+            assertEquals(2, totals.count());
+        }
     }
 }
@@ -0,0 +1,135 @@
+package com.example.billingapp.repository;
+
+import com.example.billingapp.model.CustomerTotalDTO;
+import com.example.billingapp.support.SqlCapture;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs each repository query, captures the SQL Hibernate sends and asserts that H2's
+ * EXPLAIN plan reads every table through an index. Queries that read whole tables by
+ * design (the exports, the balance verification and the rollup rebuild) are not covered,
+ * nor is the snapshot delta grouping, findCustomerTotalsCreatedBetween: on empty tables H2
+ * drives that join from customer, and only the payment table's row count makes it start
+ * from the created_at range.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.billingapp.support.SqlCapture")
+class QueryPlanTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MonthlyRevenueRepository monthlyRevenueRepository;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapture.clear();
+    }
+
+    @Test
+    void customerQueries_UseIndexes() {
+        assertIndexed(() -> customerRepository.existsByEmail("john@example.com"));
+        assertIndexed(() -> customerRepository.countCreatedBetween(TODAY.atStartOfDay(), TODAY.plusDays(1).atStartOfDay()));
+        assertIndexed(() -> customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void invoiceQueries_UseIndexes() {
+        LocalDateTime from = LocalDateTime.of(2000, 1, 1, 0, 0);
+        LocalDateTime to = TODAY.plusDays(1).atStartOfDay();
+        assertIndexed(() -> invoiceRepository.summarizeCreatedBetween(from, to));
+        assertIndexed(() -> invoiceRepository.findOverdue(TODAY, null, from, to));
+        assertIndexed(() -> invoiceRepository.findOverdue(TODAY, 1L, from, to));
+        assertIndexed(() -> invoiceRepository.applyPayment(1L, 1000));
+        assertIndexed(() -> invoiceRepository.findAllByIdForUpdate(List.of(1L, 2L)));
+        assertIndexed(() -> invoiceRepository.hasPayments(1L));
+        assertIndexed(() -> invoiceRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)));
+        assertIndexed(() -> invoiceRepository.findWithCustomerAndPaymentsById(1L));
+    }
+
+    @Test
+    void paymentQueries_UseIndexes() {
+        LocalDate from = TODAY.minusMonths(1);
+        assertIndexed(() -> paymentRepository.existsByTransactionNumber("TXN-001"));
+        assertIndexed(() -> paymentRepository.findExistingTransactionNumbers(Set.of("TXN-001", "TXN-002")));
+        assertIndexed(() -> paymentRepository.sumAmountPaidBetween(from, TODAY));
+        assertIndexed(() -> paymentRepository.findTopCustomers(from, TODAY, PageRequest.of(0, 5)));
+        assertIndexed(() -> {
+            try (Stream<CustomerTotalDTO> totals = paymentRepository.streamCustomerTotals(from, TODAY)) {
+                totals.toList();
+            }
+        });
+        assertIndexed(() -> paymentRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)));
+        LocalDateTime since = TODAY.atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexed(() -> paymentRepository.sumAmountPaidCreatedBetween(from, TODAY, since, now));
+        assertIndexed(() -> paymentRepository.findTopCustomersCreatedBetween(from, TODAY, since, now, PageRequest.of(0, 5)));
+        assertIndexed(() -> paymentRepository.findCustomerTotalsCreatedBefore(Set.of(1L, 2L), from, TODAY, now));
+    }
+
+    @Test
+    void monthlyRevenueQueries_UseIndexes() {
+        LocalDate month = TODAY.withDayOfMonth(1);
+        assertIndexed(() -> monthlyRevenueRepository.findByMonthStartBetweenOrderByMonthStartAsc(month.minusYears(1), month));
+        assertIndexed(() -> monthlyRevenueRepository.countByMonthStart(month));
+        assertIndexed(() -> monthlyRevenueRepository.addToMonth(month, 0, 1000));
+    }
+
+    private void assertIndexed(Runnable query) {
+        SqlCapture.clear();
+        query.run();
+        List<String> statements = SqlCapture.statements();
+        assertFalse(statements.isEmpty(), "The query sent no SQL");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(".tableScan"), () -> "Table scan in:\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet plan = statement.executeQuery()) {
+                    while (plan.next()) {
+                        lines.add(plan.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.billingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AlwaysTrue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("TXN-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("TXN-" + i));
+        }
+    }
+
+    @Test
+    void mightContain_AbsentValues_FalsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("TXN-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("OTHER-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveProbability(), 0.005);
+    }
+
+    @Test
+    void create_SizesBitArrayForTargetRate() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01);
+
+        // About 9.6 bits per value at 1%.
+        assertEquals(1_198_160, filter.memoryBytes(), 64);
+        assertEquals(0.0, filter.expectedFalsePositiveProbability());
+    }
+}
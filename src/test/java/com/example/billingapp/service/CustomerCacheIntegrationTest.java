@@ -0,0 +1,79 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.repository.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerCacheIntegrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        customer = new Customer();
+        customer.setName("Cached Customer");
+        customer.setEmail("cached-" + System.nanoTime() + "@example.com");
+        customer = customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.findById(customer.getId()).ifPresent(customerRepository::delete);
+    }
+
+    @Test
+    void getCustomerById_IsServedFromSecondLevelCache() {
+        statistics.clear();
+
+        customerService.getCustomerById(customer.getId());
+        customerService.getCustomerById(customer.getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics("customer").getHitCount());
+    }
+
+    @Test
+    void updateCustomer_RefreshesCachedEntry() {
+        customerService.getCustomerById(customer.getId());
+        Customer update = new Customer();
+        update.setName("Renamed Customer");
+        update.setEmail(customer.getEmail());
+
+        customerService.updateCustomer(customer.getId(), update);
+
+        assertEquals("Renamed Customer", customerService.getCustomerById(customer.getId()).getName());
+    }
+
+    @Test
+    void deleteCustomer_EvictsCachedEntry() {
+        customerService.getCustomerById(customer.getId());
+
+        customerService.deleteCustomer(customer.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> customerService.getCustomerById(customer.getId()));
+    }
+}
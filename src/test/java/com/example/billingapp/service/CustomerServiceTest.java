@@ -2,15 +2,21 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.repository.CustomerRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +32,12 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UniqueValueFilters uniqueValueFilters;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -38,6 +50,7 @@ class CustomerServiceTest {
         customer.setName("John Doe");
         customer.setEmail("john@example.com");
         customer.setPhone("123-456-7890");
+        lenient().when(uniqueValueFilters.mayContainEmail(anyString())).thenReturn(true);
     }
 
     @Test
@@ -52,6 +65,40 @@ class CustomerServiceTest {
         assertEquals("john@example.com", result.getEmail());
         verify(customerRepository).existsByEmail("john@example.com");
         verify(customerRepository).save(customer);
+        verify(eventPublisher).publishEvent(any(BillingDataChangedEvent.class));
+    }
+
+    @Test
+    void createCustomer_EmailNotInFilter_SkipsDatabaseProbe() {
+        when(uniqueValueFilters.mayContainEmail("john@example.com")).thenReturn(false);
+        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+
+        customerService.createCustomer(customer);
+
+        verify(customerRepository, never()).existsByEmail(any());
+        verify(uniqueValueFilters).addEmail("john@example.com");
+    }
+
+    @Test
+    void createCustomer_EmailTakenConcurrently_ThrowsException() {
+        when(customerRepository.existsByEmail(anyString())).thenReturn(false);
+        when(customerRepository.save(any(Customer.class)))
+                .thenThrow(violation("PUBLIC.UK_CUSTOMER_EMAIL_INDEX_5 ON PUBLIC.CUSTOMER(EMAIL)"));
+
+        assertThrows(BusinessRuleViolationException.class, () -> {
+            customerService.createCustomer(customer);
+        });
+
+        verify(uniqueValueFilters, never()).addEmail(any());
+    }
+
+    @Test
+    void createCustomer_OtherConstraintViolated_Rethrows() {
+        when(customerRepository.existsByEmail(anyString())).thenReturn(false);
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("NULL not allowed for column NAME");
+        when(customerRepository.save(any(Customer.class))).thenThrow(notNull);
+
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class, () -> customerService.createCustomer(customer)));
     }
 
     @Test
@@ -88,15 +135,44 @@ class CustomerServiceTest {
     }
 
     @Test
-    void getAllCustomers_Success() {
+    void getCustomers_LastPage_HasNoNextCursor() {
         List<Customer> customers = Arrays.asList(customer);
-        when(customerRepository.findAll()).thenReturn(customers);
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 11))).thenReturn(customers);
+
+        CursorPage<Customer> result = customerService.getCustomers(null, 10);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("John Doe", result.getItems().get(0).getName());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getCustomers_MoreRows_ReturnsNextCursor() {
+        Customer next = new Customer();
+        next.setId(2L);
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(customer, next));
+
+        CursorPage<Customer> result = customerService.getCustomers(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(1L, result.getNextCursor());
+    }
+
+    @Test
+    void getCustomers_LimitAboveMaximum_IsCapped() {
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 1001))).thenReturn(List.of());
 
-        List<Customer> result = customerService.getAllCustomers();
+        CursorPage<Customer> result = customerService.getCustomers(5L, 50_000);
+
+        assertTrue(result.getItems().isEmpty());
+    }
 
-        assertEquals(1, result.size());
-        assertEquals("John Doe", result.get(0).getName());
-        verify(customerRepository).findAll();
+    @Test
+    void getCustomers_NonPositiveLimit_ThrowsException() {
+        assertThrows(BusinessRuleViolationException.class, () -> {
+            customerService.getCustomers(null, 0);
+        });
     }
 
     @Test
@@ -160,4 +236,9 @@ class CustomerServiceTest {
         verify(customerRepository).findById(1L);
         verify(customerRepository).delete(customer);
     }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
 }
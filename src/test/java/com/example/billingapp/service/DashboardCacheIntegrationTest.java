@@ -0,0 +1,46 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.service.DashboardCache.Key;
+import com.example.billingapp.service.DashboardCache.View;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "billing.dashboard.cache.enabled=true")
+@ActiveProfiles("test")
+class DashboardCacheIntegrationTest {
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void committedWrite_EvictsEntry_RolledBackWriteDoesNot() {
+        Key key = Key.of(View.SUMMARY, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        AtomicInteger loads = new AtomicInteger();
+        BillingDataChangedEvent event = BillingDataChangedEvent.of(BillingDataChangedEvent.Kind.PAYMENTS, LocalDate.of(2020, 6, 1));
+        dashboardCache.get(key, loads::incrementAndGet);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(event);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, dashboardCache.get(key, loads::incrementAndGet));
+
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+        assertEquals(2, dashboardCache.get(key, loads::incrementAndGet));
+    }
+}
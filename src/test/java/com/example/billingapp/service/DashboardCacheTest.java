@@ -0,0 +1,102 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.service.DashboardCache.Key;
+import com.example.billingapp.service.DashboardCache.View;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardCacheTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2024, 1, 31);
+
+    private DashboardCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DashboardCache(true, 100);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_SecondCallIsServedFromCache() {
+        Key key = Key.of(View.SUMMARY, JAN_1, JAN_31);
+
+        assertEquals(1, cache.get(key, loads::incrementAndGet));
+        assertEquals(1, cache.get(key, loads::incrementAndGet));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void paymentEvent_EvictsOnlyRangesContainingItsDate() {
+        Key january = Key.of(View.MONTHLY_REVENUE, JAN_1, JAN_31);
+        Key february = Key.of(View.MONTHLY_REVENUE, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+        Key allTime = Key.of(View.MONTHLY_REVENUE, null, null);
+        cache.get(january, loads::incrementAndGet);
+        cache.get(february, loads::incrementAndGet);
+        cache.get(allTime, loads::incrementAndGet);
+
+        cache.onBillingDataChanged(BillingDataChangedEvent.of(BillingDataChangedEvent.Kind.PAYMENTS, LocalDate.of(2024, 1, 15)));
+
+        assertEquals(4, cache.get(january, loads::incrementAndGet));
+        assertEquals(2, cache.get(february, loads::incrementAndGet));
+        assertEquals(5, cache.get(allTime, loads::incrementAndGet));
+    }
+
+    @Test
+    void invoiceEvent_LeavesPaymentOnlyViewsCached() {
+        Key summary = Key.of(View.SUMMARY, null, null);
+        Key topCustomers = new Key(View.TOP_CUSTOMERS, null, null, 5);
+        cache.get(summary, loads::incrementAndGet);
+        cache.get(topCustomers, loads::incrementAndGet);
+
+        cache.onBillingDataChanged(BillingDataChangedEvent.of(BillingDataChangedEvent.Kind.INVOICES, JAN_1));
+
+        assertEquals(3, cache.get(summary, loads::incrementAndGet));
+        assertEquals(2, cache.get(topCustomers, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_WriteDuringLoad_ResultIsNotCached() {
+        Key key = Key.of(View.SUMMARY, null, null);
+
+        cache.get(key, () -> {
+            cache.onBillingDataChanged(new BillingDataChangedEvent(BillingDataChangedEvent.Kind.PAYMENTS, Set.of()));
+            return loads.incrementAndGet();
+        });
+
+        assertEquals(2, cache.get(key, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_Disabled_AlwaysLoads() {
+        cache = new DashboardCache(false, 100);
+        Key key = Key.of(View.SUMMARY, null, null);
+
+        cache.get(key, loads::incrementAndGet);
+        cache.get(key, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bindTo_ExposesHitAndMissCounts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        Key key = Key.of(View.SUMMARY, null, null);
+
+        cache.get(key, loads::incrementAndGet);
+        cache.get(key, loads::incrementAndGet);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "dashboard").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "dashboard").tag("result", "miss").functionCounter().count());
+    }
+}
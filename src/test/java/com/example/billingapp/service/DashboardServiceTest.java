@@ -0,0 +1,201 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.exception.BusinessRuleViolationException;
+import com.example.billingapp.model.CustomerTotalDTO;
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.MonthlyRevenueRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private MonthlyRevenueRepository monthlyRevenueRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final ParallelQueries parallelQueries = new ParallelQueries(executor,
+            TransactionOperations.withoutTransaction(), Duration.ofSeconds(5));
+
+    private DashboardService dashboardService;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(customerRepository, invoiceRepository, paymentRepository,
+                monthlyRevenueRepository, parallelQueries, false);
+    }
+
+    @Test
+    void getSummary_RunsAggregatesConcurrently() {
+        // Each aggregate waits for the other two to start, so the summary only completes if they overlap.
+        CountDownLatch started = new CountDownLatch(3);
+        when(customerRepository.countCreatedBetween(any(), any())).thenAnswer(invocation -> awaitOthers(started, 2L));
+        when(invoiceRepository.summarizeCreatedBetween(any(), any()))
+                .thenAnswer(invocation -> awaitOthers(started, new InvoiceTotalsDTO(3L, Money.of("900.00"))));
+        when(paymentRepository.sumAmountPaidBetween(any(), any())).thenAnswer(invocation -> awaitOthers(started, 40000L));
+
+        Map<String, Object> summary = dashboardService.getSummary(null, null);
+
+        assertEquals(2L, summary.get("totalCustomers"));
+        assertEquals(3L, summary.get("totalInvoices"));
+        assertEquals(Money.of("900.00"), summary.get("totalAmountInvoiced"));
+        assertEquals(Money.of("400.00"), summary.get("totalAmountPaid"));
+        assertEquals(Money.of("500.00"), summary.get("outstandingBalance"));
+    }
+
+    @Test
+    void getSummary_AggregateTimesOut_ThrowsAndSkipsQueriesNotStarted() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        dashboardService = new DashboardService(customerRepository, invoiceRepository, paymentRepository,
+                monthlyRevenueRepository, new ParallelQueries(singleThread, TransactionOperations.withoutTransaction(),
+                Duration.ofMillis(100)), false);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.countCreatedBetween(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+
+        assertThrows(QueryTimeoutException.class, () -> dashboardService.getSummary(null, null));
+
+        release.countDown();
+        singleThread.shutdown();
+        assertTrue(singleThread.awaitTermination(5, TimeUnit.SECONDS));
+        verifyNoInteractions(invoiceRepository, paymentRepository);
+    }
+
+    @Test
+    void getTopCustomers_UsesGroupedQueryWithLimit() {
+        when(paymentRepository.findTopCustomers(any(), any(), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(new CustomerTotalDTO(1L, "Alice", Money.of("300.00")), new CustomerTotalDTO(2L, "Bob", Money.of("200.00"))));
+
+        List<Map<String, Object>> result = dashboardService.getTopCustomers(null, null, 2);
+
+        assertEquals(List.of(Map.of("customerName", "Alice", "totalPaid", Money.of("300.00")),
+                Map.of("customerName", "Bob", "totalPaid", Money.of("200.00"))), result);
+        verify(paymentRepository, never()).findAll();
+    }
+
+    @Test
+    void getTopCustomers_InMemory_KeepsTopNByTotalThenId() {
+        dashboardService = new DashboardService(customerRepository, invoiceRepository, paymentRepository,
+                monthlyRevenueRepository, parallelQueries, true);
+        when(paymentRepository.streamCustomerTotals(any(), any())).thenReturn(Stream.of(
+                new CustomerTotalDTO(1L, "Alice", Money.of("100.00")),
+                new CustomerTotalDTO(2L, "Bob", Money.of("500.00")),
+                new CustomerTotalDTO(3L, "Carol", Money.of("50.00")),
+                new CustomerTotalDTO(4L, "Dave", Money.of("300.00")),
+                new CustomerTotalDTO(5L, "Eve", Money.of("300.00"))));
+
+        List<Map<String, Object>> result = dashboardService.getTopCustomers(null, null, 3);
+
+        assertEquals(List.of("Bob", "Dave", "Eve"), result.stream().map(row -> row.get("customerName")).toList());
+        verify(paymentRepository, never()).findTopCustomers(any(), any(), any());
+    }
+
+    @Test
+    void getTopCustomers_ClampsLimit() {
+        when(paymentRepository.findTopCustomers(any(), any(), any())).thenReturn(List.of());
+
+        dashboardService.getTopCustomers(null, null, 10_000);
+
+        verify(paymentRepository).findTopCustomers(any(), any(), eq(PageRequest.of(0, DashboardService.MAX_TOP_CUSTOMERS)));
+    }
+
+    @Test
+    void getTopCustomers_NonPositiveLimit_ThrowsException() {
+        assertThrows(BusinessRuleViolationException.class, () -> dashboardService.getTopCustomers(null, null, 0));
+    }
+
+    @Test
+    void getMonthlyRevenue_FullMonthsComeFromRollup() {
+        when(monthlyRevenueRepository.findByMonthStartBetweenOrderByMonthStartAsc(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(List.of(month(2024, 1, "100.00"), month(2024, 2, "200.00")));
+
+        List<Map<String, Object>> result = dashboardService.getMonthlyRevenue(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+        assertEquals(List.of(Map.of("month", "2024-01", "total", Money.of("100.00")), Map.of("month", "2024-02", "total", Money.of("200.00"))), result);
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void getMonthlyRevenue_PartialEdgeMonthsComeFromPayments() {
+        when(monthlyRevenueRepository.findByMonthStartBetweenOrderByMonthStartAsc(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(List.of(month(2024, 2, "200.00")));
+        when(paymentRepository.sumAmountPaidBetween(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 31))).thenReturn(4000L);
+        when(paymentRepository.sumAmountPaidBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10))).thenReturn(0L);
+
+        List<Map<String, Object>> result = dashboardService.getMonthlyRevenue(
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertEquals(List.of(Map.of("month", "2024-01", "total", Money.of("40.00")), Map.of("month", "2024-02", "total", Money.of("200.00"))), result);
+    }
+
+    @Test
+    void getMonthlyRevenue_RangeWithoutFullMonth_SkipsRollup() {
+        when(paymentRepository.sumAmountPaidBetween(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 31))).thenReturn(1000L);
+        when(paymentRepository.sumAmountPaidBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5))).thenReturn(2000L);
+
+        List<Map<String, Object>> result = dashboardService.getMonthlyRevenue(
+                LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 5));
+
+        assertEquals(List.of(Map.of("month", "2024-01", "total", Money.of("10.00")), Map.of("month", "2024-02", "total", Money.of("20.00"))), result);
+        verify(monthlyRevenueRepository, never()).findByMonthStartBetweenOrderByMonthStartAsc(any(), any());
+    }
+
+    private static MonthlyRevenue month(int year, int month, String total) {
+        MonthlyRevenue revenue = new MonthlyRevenue();
+        revenue.setMonthStart(LocalDate.of(year, month, 1));
+        revenue.setTotal(Money.of(total));
+        return revenue;
+    }
+
+    private static <T> T awaitOthers(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        assertTrue(started.await(5, TimeUnit.SECONDS), "The aggregates ran one after another");
+        return result;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import com.example.billingapp.service.DashboardSnapshots.Snapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "billing.dashboard.snapshot.commit-lag=PT0S")
+@ActiveProfiles("test")
+class DashboardSnapshotsIntegrationTest {
+
+    @Autowired
+    private DashboardSnapshots dashboardSnapshots;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private int sequence;
+
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(BillingDataChangedEvent.removed(BillingDataChangedEvent.Kind.CUSTOMERS, null));
+    }
+
+    @Test
+    void incrementalRefresh_MatchesFreshResults() {
+        Invoice first = addInvoice("500.00");
+        addPayment(first, "100.00", LocalDate.now());
+        addPayment(addInvoice("300.00"), "250.00", LocalDate.now().minusMonths(2));
+        dashboardSnapshots.refresh();
+        assertMatchesFreshResults();
+
+        // New payments for a customer already ranked and for new customers.
+        addPayment(first, "200.00", LocalDate.now());
+        for (int i = 0; i < 3; i++) {
+            addPayment(addInvoice("1000.00"), String.valueOf(50 * (i + 1)), LocalDate.now());
+        }
+        dashboardSnapshots.refresh();
+        assertMatchesFreshResults();
+    }
+
+    @Test
+    void removal_TriggersFullRefresh() {
+        addPayment(addInvoice("500.00"), "100.00", LocalDate.now());
+        Invoice unpaid = addInvoice("300.00");
+        dashboardSnapshots.refresh();
+
+        invoiceService.deleteInvoice(unpaid.getId());
+        dashboardSnapshots.refresh();
+
+        assertMatchesFreshResults();
+        assertEquals(1L, dashboardSnapshots.find(null, null).orElseThrow().totalInvoices());
+    }
+
+    private void assertMatchesFreshResults() {
+        YearMonth month = YearMonth.now();
+        assertMatches(dashboardSnapshots.find(null, null).orElseThrow(), null, null);
+        assertMatches(dashboardSnapshots.find(month.atDay(1), month.atEndOfMonth()).orElseThrow(),
+                month.atDay(1), month.atEndOfMonth());
+    }
+
+    private void assertMatches(Snapshot snapshot, LocalDate startDate, LocalDate endDate) {
+        assertEquals(dashboardService.getSummary(startDate, endDate), snapshot.summary());
+        assertEquals(dashboardService.getTopCustomers(startDate, endDate, 100), snapshot.topCustomers(100));
+        assertEquals(dashboardService.getMonthlyRevenue(startDate, endDate), snapshot.monthlyRevenue());
+    }
+
+    private Invoice addInvoice(String amount) {
+        Customer customer = new Customer();
+        customer.setName("Snapshot Customer " + ++sequence);
+        customer.setEmail("snapshot-" + sequence + "-" + System.nanoTime() + "@example.com");
+        customer = customerRepository.save(customer);
+
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of(amount));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        return invoiceRepository.save(invoice);
+    }
+
+    private void addPayment(Invoice invoice, String amount, LocalDate paymentDate) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of(amount));
+        payment.setPaymentDate(paymentDate);
+        payment.setPaymentMethod("CARD");
+        payment.setTransactionNumber("SNAP-" + ++sequence + "-" + System.nanoTime());
+        paymentRepository.save(payment);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.model.InvoiceTotalsDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardSnapshotsTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardSnapshots dashboardSnapshots;
+
+    @BeforeEach
+    void setUp() {
+        dashboardSnapshots = new DashboardSnapshots(customerRepository, invoiceRepository, paymentRepository,
+                dashboardService, transactionManager, Duration.ZERO, Duration.ofHours(1));
+        when(invoiceRepository.summarizeCreatedBetween(any(), any())).thenReturn(new InvoiceTotalsDTO(0L, Money.ZERO));
+    }
+
+    @Test
+    void refresh_WhileAnotherRefreshRuns_IsSkipped() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.countCreatedBetween(any(), any())).thenAnswer(invocation -> {
+            running.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return 0L;
+        }).thenReturn(0L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> first = executor.submit(dashboardSnapshots::refresh);
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            assertFalse(dashboardSnapshots.refresh());
+
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertTrue(dashboardSnapshots.find(null, null).isPresent());
+    }
+
+    @Test
+    void refresh_AfterFailedFullRefresh_RefreshesFullyAgain() {
+        when(customerRepository.countCreatedBetween(any(), any())).thenReturn(0L);
+        dashboardSnapshots.refresh();
+        verify(paymentRepository, times(2)).sumAmountPaidCreatedBetween(any(), any(), any(), any());
+
+        dashboardSnapshots.onBillingDataChanged(
+                BillingDataChangedEvent.removed(BillingDataChangedEvent.Kind.INVOICES, LocalDateTime.now()));
+        when(customerRepository.countCreatedBetween(any(), any())).thenThrow(new QueryTimeoutException("timeout"));
+        assertThrows(QueryTimeoutException.class, dashboardSnapshots::refresh);
+
+        reset(customerRepository);
+        when(customerRepository.countCreatedBetween(any(), any())).thenReturn(0L);
+        dashboardSnapshots.refresh();
+        verify(paymentRepository, times(4)).sumAmountPaidCreatedBetween(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.exception.BusinessRuleViolationException;
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "billing.jfr.enabled=true")
+@ActiveProfiles("test")
+class FlightEventsIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void billingOperations_AreRecordedAsFlightEvents() throws Exception {
+        Invoice invoice = overdueInvoice();
+        LocalDate today = LocalDate.now();
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("billing.PaymentCreation");
+            recording.enable("billing.DashboardComputation");
+            recording.enable("billing.OverdueReport");
+            recording.start();
+
+            paymentService.createPayment(payment(invoice, "100.00", "JFR-1"));
+            assertThrows(BusinessRuleViolationException.class,
+                    () -> paymentService.createPayment(payment(invoice, "5000.00", "JFR-2")));
+            dashboardService.getSummary(null, null);
+            dashboardService.getTopCustomers(today.withDayOfMonth(1), today, 5);
+            dashboardService.getMonthlyRevenue(null, null);
+            invoiceService.getOverdueInvoices(invoice.getCustomer().getId(), null, null);
+
+            recording.stop();
+            Path file = tempDir.resolve("billing.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> payments = named(events, "billing.PaymentCreation");
+        assertEquals(2, payments.size());
+        assertEquals(invoice.getId(), payments.get(0).getLong("invoiceId"));
+        assertEquals("CREATED", payments.get(0).getString("outcome"));
+        assertTrue(payments.get(1).getString("outcome").startsWith("A payment's total"));
+        assertFalse(payments.get(0).getDuration().isNegative());
+
+        List<RecordedEvent> dashboards = named(events, "billing.DashboardComputation");
+        assertEquals(List.of("summary", "top-customers", "monthly-revenue"),
+                dashboards.stream().map(event -> event.getString("endpoint")).toList());
+        assertNull(dashboards.get(0).getString("startDate"));
+        assertEquals(3, dashboards.get(0).getLong("rowsRead"));
+        assertEquals(today.withDayOfMonth(1).toString(), dashboards.get(1).getString("startDate"));
+        assertEquals(1, dashboards.get(1).getLong("rowsRead"));
+
+        List<RecordedEvent> reports = named(events, "billing.OverdueReport");
+        assertEquals(1, reports.size());
+        assertEquals(invoice.getCustomer().getId(), reports.get(0).getLong("customerId"));
+        assertEquals(1, reports.get(0).getLong("invoices"));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .toList();
+    }
+
+    private Invoice overdueInvoice() {
+        Customer customer = new Customer();
+        customer.setName("Flight Customer");
+        customer.setEmail("flight-" + System.nanoTime() + "@example.com");
+        customer = customerRepository.save(customer);
+
+        Invoice invoice = new Invoice();
+        invoice.setCustomer(customer);
+        invoice.setAmount(Money.of("1000.00"));
+        invoice.setDueDate(LocalDate.now().minusDays(1));
+        return invoiceRepository.save(invoice);
+    }
+
+    private static Payment payment(Invoice invoice, String amount, String transactionNumber) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(Money.of(amount));
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber(transactionNumber);
+        return payment;
+    }
+}
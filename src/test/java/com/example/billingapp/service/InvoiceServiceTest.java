@@ -2,27 +2,35 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Customer;
 import com.example.billingapp.model.Invoice;
-import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.InvoiceBalanceDTO;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.OverdueInvoiceDTO;
 import com.example.billingapp.model.enums.InvoiceStatus;
 import com.example.billingapp.repository.CustomerRepository;
 import com.example.billingapp.repository.InvoiceRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +42,12 @@ class InvoiceServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InvoiceService invoiceService;
 
@@ -50,22 +64,23 @@ class InvoiceServiceTest {
         invoice = new Invoice();
         invoice.setId(1L);
         invoice.setCustomer(customer);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setDueDate(LocalDate.now().plusDays(30));
         invoice.setPayments(new ArrayList<>());
     }
 
     @Test
     void createInvoice_Success() {
-        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         Invoice result = invoiceService.createInvoice(invoice);
 
         assertNotNull(result);
-        assertEquals(1000.0, result.getAmount());
-        verify(customerRepository).existsById(1L);
+        assertEquals(Money.of("1000.00"), result.getAmount());
+        verify(customerRepository).findById(1L);
         verify(invoiceRepository).save(invoice);
+        verify(eventPublisher).publishEvent(any(BillingDataChangedEvent.class));
     }
 
     @Test
@@ -81,7 +96,7 @@ class InvoiceServiceTest {
 
     @Test
     void createInvoice_CustomerNotExists_ThrowsException() {
-        when(customerRepository.existsById(1L)).thenReturn(false);
+        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             invoiceService.createInvoice(invoice);
@@ -92,8 +107,8 @@ class InvoiceServiceTest {
 
     @Test
     void createInvoice_InvalidAmount_ThrowsException() {
-        invoice.setAmount(0.0);
-        when(customerRepository.existsById(1L)).thenReturn(true);
+        invoice.setAmount(Money.of("0.00"));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             invoiceService.createInvoice(invoice);
@@ -105,7 +120,7 @@ class InvoiceServiceTest {
     @Test
     void createInvoice_DueDateNotInFuture_ThrowsException() {
         invoice.setDueDate(LocalDate.now());
-        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             invoiceService.createInvoice(invoice);
@@ -114,20 +129,33 @@ class InvoiceServiceTest {
         verify(invoiceRepository, never()).save(any());
     }
 
+    @Test
+    void getInvoices_Success() {
+        Invoice next = new Invoice();
+        next.setId(2L);
+        when(invoiceRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(invoice, next));
+
+        CursorPage<Invoice> result = invoiceService.getInvoices(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(1L, result.getNextCursor());
+    }
+
     @Test
     void getInvoiceById_Success() {
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findWithCustomerAndPaymentsById(1L)).thenReturn(Optional.of(invoice));
 
         Invoice result = invoiceService.getInvoiceById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        verify(invoiceRepository).findById(1L);
+        verify(invoiceRepository).findWithCustomerAndPaymentsById(1L);
     }
 
     @Test
     void getInvoiceById_NotFound_ThrowsException() {
-        when(invoiceRepository.findById(999L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findWithCustomerAndPaymentsById(999L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             invoiceService.getInvoiceById(999L);
@@ -147,12 +175,8 @@ class InvoiceServiceTest {
 
     @Test
     void deleteInvoice_WithPayments_ThrowsException() {
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setAmount(100.0);
-        invoice.getPayments().add(payment);
-
         when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.hasPayments(1L)).thenReturn(true);
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             invoiceService.deleteInvoice(1L);
@@ -163,19 +187,63 @@ class InvoiceServiceTest {
 
     @Test
     void getOverdueInvoices_Success() {
-        Invoice overdueInvoice = new Invoice();
-        overdueInvoice.setId(2L);
-        overdueInvoice.setCustomer(customer);
-        overdueInvoice.setAmount(500.0);
-        overdueInvoice.setDueDate(LocalDate.now().minusDays(10));
-        overdueInvoice.setPayments(new ArrayList<>());
+        OverdueInvoiceDTO overdue = new OverdueInvoiceDTO(2L, "John Doe", 50000L, 0L, LocalDate.now().minusDays(10));
+        when(invoiceRepository.findOverdue(eq(LocalDate.now()), isNull(), any(), any())).thenReturn(List.of(overdue));
 
-        List<Invoice> invoices = Arrays.asList(invoice, overdueInvoice);
-        when(invoiceRepository.findAll()).thenReturn(invoices);
+        List<OverdueInvoiceDTO> result = invoiceService.getOverdueInvoices(null, null, null);
 
-        List<?> result = invoiceService.getOverdueInvoices(null, null, null);
+        assertEquals(1, result.size());
+        assertEquals("INV2", result.get(0).getInvoiceNumber());
+        assertEquals(10, result.get(0).getDaysOverdue());
+        assertEquals("OVERDUE", result.get(0).getStatus());
+    }
+
+    @Test
+    void getOverdueInvoices_WithFilters_PassesBoundsToRepository() {
+        LocalDate startDate = LocalDate.now().minusDays(30);
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        when(invoiceRepository.findOverdue(LocalDate.now(), 1L, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of());
+
+        List<OverdueInvoiceDTO> result = invoiceService.getOverdueInvoices(1L, startDate, endDate);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void verifyBalances_Repair_RewritesStoredBalance() {
+        InvoiceBalanceDTO mismatch = new InvoiceBalanceDTO(1L, 0L, InvoiceStatus.PENDING, 100000L);
+        when(invoiceRepository.findBalanceMismatches()).thenReturn(List.of(mismatch));
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+
+        List<InvoiceBalanceDTO> result = invoiceService.verifyBalances(true);
 
-        assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals(Money.of("1000.00"), invoice.getAmountPaid());
+        assertEquals(InvoiceStatus.PAID, invoice.getStatus());
+    }
+
+    @Test
+    void verifyBalances_NoRepair_LeavesInvoicesUntouched() {
+        InvoiceBalanceDTO mismatch = new InvoiceBalanceDTO(1L, 0L, InvoiceStatus.PENDING, 100000L);
+        when(invoiceRepository.findBalanceMismatches()).thenReturn(List.of(mismatch));
+
+        List<InvoiceBalanceDTO> result = invoiceService.verifyBalances(false);
+
+        assertEquals(1, result.size());
+        assertEquals(Money.ZERO, invoice.getAmountPaid());
+        verify(invoiceRepository, never()).findById(any());
+    }
+
+    @Test
+    void exportInvoices_HandsOverAndDetachesEachRow() {
+        when(invoiceRepository.streamAll()).thenReturn(Stream.of(invoice));
+
+        List<Invoice> exported = new ArrayList<>();
+        invoiceService.exportInvoices(exported::add);
+
+        assertEquals(List.of(invoice), exported);
+        verify(entityManager).detach(invoice);
+        verify(entityManager).detach(customer);
     }
 }
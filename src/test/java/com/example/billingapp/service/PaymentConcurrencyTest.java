@@ -0,0 +1,228 @@
+package com.example.billingapp.service;
+
+import com.example.billingapp.exception.BusinessRuleViolationException;
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.PaymentBatchResultDTO;
+import com.example.billingapp.model.enums.InvoiceStatus;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.MonthlyRevenueRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires more payments than the invoices can absorb from many threads at once. Runs
+ * without a test transaction so each payment commits on its own, and cleans up after.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentConcurrencyTest.class);
+
+    private static final int THREADS = 16;
+    private static final int INVOICES = 4;
+    private static final Money INVOICE_AMOUNT = Money.of("1000.00");
+    private static final Money PAYMENT_AMOUNT = Money.of("10.00");
+    private static final int ATTEMPTS_PER_INVOICE = 200;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MonthlyRevenueRepository monthlyRevenueRepository;
+
+    @Autowired
+    private MonthlyRevenueService monthlyRevenueService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAllInBatch();
+        // Through the service, so it forgets which months have their rollup rows.
+        monthlyRevenueService.rebuild();
+        invoiceRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentPayments_NeverOverpayAnInvoice() throws Exception {
+        List<Long> invoiceIds = createInvoices(INVOICES);
+
+        int attempts = INVOICES * ATTEMPTS_PER_INVOICE;
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int n = 0; n < attempts; n++) {
+            Long invoiceId = invoiceIds.get(n % INVOICES);
+            String transactionNumber = "STRESS-" + n;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    paymentService.createPayment(payment(invoiceId, transactionNumber));
+                    accepted.incrementAndGet();
+                } catch (BusinessRuleViolationException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("{} payment attempts on {} threads in {} s ({} attempts/s), {} accepted, {} rejected",
+                attempts, THREADS, String.format("%.2f", seconds), String.format("%.0f", attempts / seconds),
+                accepted.get(), rejected.get());
+
+        int fitPerInvoice = (int) (INVOICE_AMOUNT.minorUnits() / PAYMENT_AMOUNT.minorUnits());
+        assertEquals(INVOICES * fitPerInvoice, accepted.get());
+        assertEquals(attempts - INVOICES * fitPerInvoice, rejected.get());
+        for (Long invoiceId : invoiceIds) {
+            Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+            Money paid = paymentRepository.findAll().stream()
+                    .filter(p -> p.getInvoice().getId().equals(invoiceId))
+                    .map(Payment::getAmount)
+                    .reduce(Money.ZERO, Money::plus);
+            assertEquals(INVOICE_AMOUNT, paid);
+            assertEquals(INVOICE_AMOUNT, invoice.getAmountPaid());
+            assertEquals(InvoiceStatus.PAID, invoice.getStatus());
+        }
+        Money rollup = monthlyRevenueRepository.findAll().stream()
+                .map(MonthlyRevenue::getTotal)
+                .reduce(Money.ZERO, Money::plus);
+        assertEquals(Money.ofMinorUnits(INVOICES * INVOICE_AMOUNT.minorUnits()), rollup);
+    }
+
+    @Test
+    void paymentsOnDifferentInvoicesInSameMonth_DoNotWaitForEachOther() throws Exception {
+        List<Long> invoiceIds = createInvoices(2);
+        assertNotEquals(MonthlyRevenue.Cell.of(LocalDate.now(), invoiceIds.get(0)),
+                MonthlyRevenue.Cell.of(LocalDate.now(), invoiceIds.get(1)));
+        CountDownLatch firstRecorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Keeps the first payment's transaction, and its rollup row lock, open.
+            Future<?> first = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                paymentService.createPayment(payment(invoiceIds.get(0), "HELD-1"));
+                firstRecorded.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(firstRecorded.await(10, TimeUnit.SECONDS));
+
+            Future<Payment> second = executor.submit(() -> paymentService.createPayment(payment(invoiceIds.get(1), "HELD-2")));
+            assertNotNull(second.get(2, TimeUnit.SECONDS).getId());
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, paymentRepository.count());
+    }
+
+    @Test
+    void paymentsAfterRollupRowsWereRemoved_RecreateTheMonthAndRetry() {
+        List<Long> invoiceIds = createInvoices(1);
+        paymentService.createPayment(payment(invoiceIds.get(0), "ROLLUP-1"));
+        // Like a rebuild running between ensureMonth and the payment transaction.
+        monthlyRevenueRepository.deleteAllInBatch();
+
+        Payment single = paymentService.createPayment(payment(invoiceIds.get(0), "ROLLUP-2"));
+        monthlyRevenueRepository.deleteAllInBatch();
+        List<PaymentBatchResultDTO> batch = paymentService.createPayments(List.of(
+                payment(invoiceIds.get(0), "ROLLUP-3"), payment(invoiceIds.get(0), "ROLLUP-4")));
+
+        assertTrue(paymentRepository.existsById(single.getId()));
+        for (PaymentBatchResultDTO result : batch) {
+            assertEquals(result.getTransactionNumber(),
+                    paymentRepository.findById(result.getPaymentId()).orElseThrow().getTransactionNumber());
+        }
+        assertEquals(4, paymentRepository.count());
+        assertEquals(MonthlyRevenue.STRIPES, monthlyRevenueRepository.countByMonthStart(LocalDate.now().withDayOfMonth(1)));
+        Money rollup = monthlyRevenueRepository.findAll().stream()
+                .map(MonthlyRevenue::getTotal)
+                .reduce(Money.ZERO, Money::plus);
+        assertEquals(Money.ofMinorUnits(2 * PAYMENT_AMOUNT.minorUnits()), rollup);
+    }
+
+    private List<Long> createInvoices(int count) {
+        Customer customer = new Customer();
+        customer.setName("Load Test");
+        customer.setEmail("load@example.com");
+        customer = customerRepository.save(customer);
+
+        List<Long> invoiceIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setCustomer(customer);
+            invoice.setAmount(INVOICE_AMOUNT);
+            invoice.setDueDate(LocalDate.now().plusDays(30));
+            invoiceIds.add(invoiceRepository.save(invoice).getId());
+        }
+        return invoiceIds;
+    }
+
+    private static Payment payment(Long invoiceId, String transactionNumber) {
+        Invoice invoice = new Invoice();
+        invoice.setId(invoiceId);
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setAmount(PAYMENT_AMOUNT);
+        payment.setPaymentDate(LocalDate.now());
+        payment.setTransactionNumber(transactionNumber);
+        return payment;
+    }
+}
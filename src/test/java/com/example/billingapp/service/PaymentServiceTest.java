@@ -2,22 +2,38 @@ package com.example.billingapp.service;
 
 import com.example.billingapp.exception.BusinessRuleViolationException;
 import com.example.billingapp.exception.ResourceNotFoundException;
+import com.example.billingapp.model.CursorPage;
 import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.MonthlyRevenue;
 import com.example.billingapp.model.Payment;
+import com.example.billingapp.model.PaymentBatchResultDTO;
 import com.example.billingapp.repository.InvoiceRepository;
 import com.example.billingapp.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,7 +48,21 @@ class PaymentServiceTest {
     @Mock
     private InvoiceRepository invoiceRepository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private MonthlyRevenueService monthlyRevenueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UniqueValueFilters uniqueValueFilters;
+
     private PaymentService paymentService;
 
     private Invoice invoice;
@@ -40,32 +70,87 @@ class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
+        paymentService = new PaymentService(paymentRepository, invoiceRepository, entityManager, monthlyRevenueService,
+                eventPublisher, transactionManager, uniqueValueFilters, Duration.ofSeconds(30));
+
         invoice = new Invoice();
         invoice.setId(1L);
-        invoice.setAmount(1000.0);
+        invoice.setAmount(Money.of("1000.00"));
         invoice.setPayments(new ArrayList<>());
 
         payment = new Payment();
         payment.setId(1L);
         payment.setInvoice(invoice);
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
         payment.setPaymentDate(LocalDate.now());
         payment.setTransactionNumber("TXN-001");
+        lenient().when(uniqueValueFilters.mayContainTransactionNumber(any())).thenReturn(true);
     }
 
     @Test
     void createPayment_Success() {
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
         when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
 
         Payment result = paymentService.createPayment(payment);
 
         assertNotNull(result);
-        assertEquals(500.0, result.getAmount());
-        verify(invoiceRepository).existsById(1L);
+        assertEquals(Money.of("500.00"), result.getAmount());
+        verify(invoiceRepository, never()).existsById(any());
         verify(paymentRepository).save(payment);
+        verify(monthlyRevenueService).ensureMonth(LocalDate.now());
+        verify(monthlyRevenueService).record(MonthlyRevenue.Cell.of(LocalDate.now(), 1L), Money.of("500.00"));
+        verify(eventPublisher).publishEvent(any(BillingDataChangedEvent.class));
+    }
+
+    @Test
+    void createPayment_UpdatesInvoiceBalanceWithConditionalUpdate() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+
+        paymentService.createPayment(payment);
+
+        verify(invoiceRepository).applyPayment(1L, 50000);
+        verify(invoiceRepository, never()).findById(any());
+        assertSame(invoice, payment.getInvoice());
+    }
+
+    @Test
+    void createPayment_RollupMonthRemoved_RecreatesMonthAndRetries() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        MonthlyRevenue.Cell cell = MonthlyRevenue.Cell.of(LocalDate.now(), 1L);
+        doThrow(new MonthlyRevenueService.MissingMonthException(cell.getMonthStart())).doNothing()
+                .when(monthlyRevenueService).record(cell, Money.of("500.00"));
+
+        assertSame(payment, paymentService.createPayment(payment));
+
+        verify(monthlyRevenueService, times(2)).ensureMonth(any());
+        verify(monthlyRevenueService, times(2)).record(cell, Money.of("500.00"));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void createPayment_RollupMonthStillMissing_Fails() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        MonthlyRevenue.Cell cell = MonthlyRevenue.Cell.of(LocalDate.now(), 1L);
+        doThrow(new MonthlyRevenueService.MissingMonthException(cell.getMonthStart()))
+                .when(monthlyRevenueService).record(cell, Money.of("500.00"));
+
+        assertThrows(MonthlyRevenueService.MissingMonthException.class, () -> paymentService.createPayment(payment));
+
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, never()).commit(any());
     }
 
     @Test
@@ -77,23 +162,25 @@ class PaymentServiceTest {
         });
 
         verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(monthlyRevenueService);
     }
 
     @Test
     void createPayment_InvoiceNotExists_ThrowsException() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(0);
         when(invoiceRepository.existsById(1L)).thenReturn(false);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
 
-        assertThrows(BusinessRuleViolationException.class, () -> {
-            paymentService.createPayment(payment);
-        });
+        BusinessRuleViolationException e = assertThrows(BusinessRuleViolationException.class,
+                () -> paymentService.createPayment(payment));
 
+        assertEquals("Invalid invoice", e.getMessage());
         verify(paymentRepository, never()).save(any());
     }
 
     @Test
     void createPayment_InvalidAmount_ThrowsException() {
-        payment.setAmount(0.0);
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
+        payment.setAmount(Money.of("0.00"));
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             paymentService.createPayment(payment);
@@ -105,7 +192,6 @@ class PaymentServiceTest {
     @Test
     void createPayment_FutureDate_ThrowsException() {
         payment.setPaymentDate(LocalDate.now().plusDays(1));
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             paymentService.createPayment(payment);
@@ -114,10 +200,20 @@ class PaymentServiceTest {
         verify(paymentRepository, never()).save(any());
     }
 
+    @Test
+    void createPayment_DateBeforeReportRange_ThrowsException() {
+        payment.setPaymentDate(LocalDate.of(1899, 12, 31));
+
+        BusinessRuleViolationException e = assertThrows(BusinessRuleViolationException.class,
+                () -> paymentService.createPayment(payment));
+
+        assertEquals("A payment's date must be on or after 1900-01-01", e.getMessage());
+        verify(paymentRepository, never()).save(any());
+    }
+
     @Test
     void createPayment_MissingTransactionNumber_ThrowsException() {
         payment.setTransactionNumber(null);
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(BusinessRuleViolationException.class, () -> {
             paymentService.createPayment(payment);
@@ -128,7 +224,6 @@ class PaymentServiceTest {
 
     @Test
     void createPayment_DuplicateTransactionNumber_ThrowsException() {
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
         when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(true);
 
         assertThrows(BusinessRuleViolationException.class, () -> {
@@ -139,46 +234,179 @@ class PaymentServiceTest {
     }
 
     @Test
-    void createPayment_ExceedsInvoiceAmount_ThrowsException() {
-        payment.setAmount(1500.0);
-        when(invoiceRepository.existsById(1L)).thenReturn(true);
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+    void createPayment_TransactionNumberNotInFilter_SkipsDatabaseProbe() {
+        when(uniqueValueFilters.mayContainTransactionNumber("TXN-001")).thenReturn(false);
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+
+        paymentService.createPayment(payment);
+
+        verify(paymentRepository, never()).existsByTransactionNumber(any());
+        verify(uniqueValueFilters).addTransactionNumber("TXN-001");
+    }
+
+    @Test
+    void createPayment_DuplicateRejectedByConstraint_ThrowsException() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
         when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+        when(paymentRepository.save(any(Payment.class)))
+                .thenThrow(violation("PUBLIC.UK_PAYMENT_TRANSACTION_NUMBER_INDEX_8 ON PUBLIC.PAYMENT(TRANSACTION_NUMBER)"));
 
-        assertThrows(BusinessRuleViolationException.class, () -> {
+        BusinessRuleViolationException exception = assertThrows(BusinessRuleViolationException.class, () -> {
             paymentService.createPayment(payment);
         });
 
+        assertEquals("Transaction number must be unique", exception.getMessage());
+    }
+
+    @Test
+    void createPayment_OtherConstraintViolated_Rethrows() {
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(1);
+        when(invoiceRepository.getReferenceById(1L)).thenReturn(invoice);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+        DataIntegrityViolationException foreignKey = violation("PUBLIC.FK_PAYMENT_INVOICE");
+        when(paymentRepository.save(any(Payment.class))).thenThrow(foreignKey);
+
+        assertSame(foreignKey, assertThrows(DataIntegrityViolationException.class, () -> paymentService.createPayment(payment)));
+    }
+
+    @Test
+    void createPayment_ExceedsInvoiceAmount_ThrowsException() {
+        payment.setAmount(Money.of("1500.00"));
+        when(invoiceRepository.applyPayment(1L, 150000)).thenReturn(0);
+        when(invoiceRepository.existsById(1L)).thenReturn(true);
+        when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
+
+        BusinessRuleViolationException e = assertThrows(BusinessRuleViolationException.class,
+                () -> paymentService.createPayment(payment));
+
+        assertEquals("A payment's total + previous payments must not exceed the invoice amount", e.getMessage());
+
         verify(paymentRepository, never()).save(any());
     }
 
     @Test
     void createPayment_TotalExceedsInvoiceAmount_ThrowsException() {
-        Payment existingPayment = new Payment();
-        existingPayment.setAmount(600.0);
-        invoice.getPayments().add(existingPayment);
+        invoice.setAmountPaid(Money.of("600.00"));
 
-        payment.setAmount(500.0);
+        payment.setAmount(Money.of("500.00"));
+        when(invoiceRepository.applyPayment(1L, 50000)).thenReturn(0);
         when(invoiceRepository.existsById(1L)).thenReturn(true);
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
         when(paymentRepository.existsByTransactionNumber("TXN-001")).thenReturn(false);
 
+        BusinessRuleViolationException e = assertThrows(BusinessRuleViolationException.class,
+                () -> paymentService.createPayment(payment));
+
+        assertEquals("A payment's total + previous payments must not exceed the invoice amount", e.getMessage());
+
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    void createPayments_ReportsResultForEachRow() {
+        Payment duplicateInDb = new Payment();
+        duplicateInDb.setInvoice(invoice);
+        duplicateInDb.setAmount(Money.of("100.00"));
+        duplicateInDb.setPaymentDate(LocalDate.now());
+        duplicateInDb.setTransactionNumber("TXN-EXISTING");
+
+        Payment overpayment = new Payment();
+        overpayment.setInvoice(invoice);
+        overpayment.setAmount(Money.of("600.00"));
+        overpayment.setPaymentDate(LocalDate.now());
+        overpayment.setTransactionNumber("TXN-002");
+
+        Invoice missing = new Invoice();
+        missing.setId(99L);
+        Payment unknownInvoice = new Payment();
+        unknownInvoice.setInvoice(missing);
+        unknownInvoice.setAmount(Money.of("100.00"));
+        unknownInvoice.setPaymentDate(LocalDate.now());
+        unknownInvoice.setTransactionNumber("TXN-003");
+
+        when(paymentRepository.findExistingTransactionNumbers(any())).thenReturn(List.of("TXN-EXISTING"));
+        when(invoiceRepository.findAllByIdForUpdate(any())).thenReturn(List.of(invoice));
+
+        List<PaymentBatchResultDTO> results = paymentService.createPayments(
+                List.of(payment, duplicateInDb, overpayment, unknownInvoice));
+
+        assertEquals(4, results.size());
+        assertEquals(PaymentBatchResultDTO.CREATED, results.get(0).getStatus());
+        assertEquals(1L, results.get(0).getPaymentId());
+        assertEquals("Transaction number must be unique", results.get(1).getError());
+        assertEquals(PaymentBatchResultDTO.REJECTED, results.get(2).getStatus());
+        assertEquals("Invalid invoice", results.get(3).getError());
+        assertEquals(Money.of("500.00"), invoice.getAmountPaid());
+        verify(paymentRepository).saveAll(List.of(payment));
+        verify(paymentRepository, never()).existsByTransactionNumber(any());
+        verify(monthlyRevenueService).record(MonthlyRevenue.Cell.of(LocalDate.now(), 1L), Money.of("500.00"));
+    }
+
+    @Test
+    void createPayments_DuplicateWithinBatch_RejectsSecondRow() {
+        Payment again = new Payment();
+        again.setInvoice(invoice);
+        again.setAmount(Money.of("100.00"));
+        again.setPaymentDate(LocalDate.now());
+        again.setTransactionNumber("TXN-001");
+
+        when(paymentRepository.findExistingTransactionNumbers(any())).thenReturn(List.of());
+        when(invoiceRepository.findAllByIdForUpdate(any())).thenReturn(List.of(invoice));
+
+        List<PaymentBatchResultDTO> results = paymentService.createPayments(List.of(payment, again));
+
+        assertEquals(PaymentBatchResultDTO.CREATED, results.get(0).getStatus());
+        assertEquals(PaymentBatchResultDTO.REJECTED, results.get(1).getStatus());
+        verify(paymentRepository).saveAll(List.of(payment));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createPayments_LocksInvoicesInIdOrderAcrossChunks() {
+        List<Payment> payments = new ArrayList<>();
+        for (long id = 1500; id >= 1; id--) {
+            Invoice target = new Invoice();
+            target.setId(id);
+            Payment row = new Payment();
+            row.setInvoice(target);
+            row.setAmount(Money.of("1.00"));
+            row.setPaymentDate(LocalDate.now());
+            row.setTransactionNumber("TXN-" + id);
+            payments.add(row);
+        }
+        when(paymentRepository.findExistingTransactionNumbers(any())).thenReturn(List.of());
+        when(invoiceRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
+
+        paymentService.createPayments(payments);
+
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(invoiceRepository, times(2)).findAllByIdForUpdate(chunks.capture());
+        assertEquals(LongStream.rangeClosed(1, 1000).boxed().toList(), List.copyOf(chunks.getAllValues().get(0)));
+        assertEquals(LongStream.rangeClosed(1001, 1500).boxed().toList(), List.copyOf(chunks.getAllValues().get(1)));
+    }
+
+    @Test
+    void createPayments_TooManyRows_ThrowsException() {
+        List<Payment> payments = Collections.nCopies(PaymentService.MAX_BATCH_SIZE + 1, payment);
+
         assertThrows(BusinessRuleViolationException.class, () -> {
-            paymentService.createPayment(payment);
+            paymentService.createPayments(payments);
         });
 
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).saveAll(any());
     }
 
     @Test
-    void getAllPayments_Success() {
+    void getPayments_Success() {
         List<Payment> payments = Arrays.asList(payment);
-        when(paymentRepository.findAll()).thenReturn(payments);
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 101))).thenReturn(payments);
 
-        List<Payment> result = paymentService.getAllPayments();
+        CursorPage<Payment> result = paymentService.getPayments(null, 100);
 
-        assertEquals(1, result.size());
-        verify(paymentRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
@@ -200,4 +428,23 @@ class PaymentServiceTest {
             paymentService.getPaymentById(999L);
         });
     }
+
+    @Test
+    void exportPayments_HandsOverAndDetachesEachRow() {
+        Payment other = new Payment();
+        other.setId(2L);
+        when(paymentRepository.streamAll()).thenReturn(Stream.of(payment, other));
+
+        List<Payment> exported = new ArrayList<>();
+        paymentService.exportPayments(exported::add);
+
+        assertEquals(List.of(payment, other), exported);
+        verify(entityManager).detach(payment);
+        verify(entityManager).detach(other);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
 }
@@ -0,0 +1,190 @@
+package com.example.billingapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.billingapp.service.BillingDataChangedEvent.Kind.PAYMENTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final DashboardCache dashboardCache = new DashboardCache(true, 100);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final Report target = new Report();
+    private Report report;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new SingleFlight(registry, dashboardCache));
+        report = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalCalls_ShareOneExecution() throws Exception {
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> report.rows("2024-01")));
+        }
+        awaitCoalesced(CALLERS - 1);
+        target.release.countDown();
+
+        List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, target.executions.get());
+        assertEquals(1, count("executed"));
+        assertEquals(CALLERS - 1, count("coalesced"));
+    }
+
+    @Test
+    void callAfterCompletion_RunsAgain() throws Exception {
+        target.release.countDown();
+
+        report.rows("2024-01");
+        report.rows("2024-01");
+
+        assertEquals(2, target.executions.get());
+        assertEquals(0, count("coalesced"));
+    }
+
+    @Test
+    void differentArguments_AreNotCoalesced() throws Exception {
+        Future<List<String>> january = executor.submit(() -> report.rows("2024-01"));
+        Future<List<String>> february = executor.submit(() -> report.rows("2024-02"));
+        awaitExecutions(2);
+        target.release.countDown();
+
+        assertEquals(List.of("2024-01"), january.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("2024-02"), february.get(5, TimeUnit.SECONDS));
+        assertEquals(0, count("coalesced"));
+    }
+
+    @Test
+    void failure_IsSharedWithWaitingCallers() throws Exception {
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(executor.submit(() -> report.rows("fail")));
+        }
+        awaitCoalesced(1);
+        target.release.countDown();
+
+        for (Future<List<String>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, target.executions.get());
+    }
+
+    @Test
+    void paymentCommittedDuringFlight_LaterCallersDoNotJoinIt() throws Exception {
+        Future<List<String>> before = executor.submit(() -> report.rows("2024-01"));
+        awaitExecutions(1);
+        dashboardCache.onBillingDataChanged(BillingDataChangedEvent.of(PAYMENTS, LocalDate.of(2024, 1, 15)));
+
+        Future<List<String>> after = executor.submit(() -> report.rows("2024-01"));
+        awaitExecutions(2);
+        Future<List<String>> later = executor.submit(() -> report.rows("2024-01"));
+        awaitCoalesced(1);
+        target.release.countDown();
+
+        assertNotSame(before.get(5, TimeUnit.SECONDS), after.get(5, TimeUnit.SECONDS));
+        assertSame(after.get(5, TimeUnit.SECONDS), later.get(5, TimeUnit.SECONDS));
+        assertEquals(2, target.executions.get());
+    }
+
+    @Test
+    void bypassedCall_DoesNotJoinFlight() throws Exception {
+        Future<List<String>> shared = executor.submit(() -> report.rows("2024-01"));
+        awaitExecutions(1);
+
+        Future<List<String>> fresh = executor.submit(() -> SingleFlight.bypass(() -> report.rows("2024-01")));
+        awaitExecutions(2);
+        target.release.countDown();
+
+        assertNotSame(shared.get(5, TimeUnit.SECONDS), fresh.get(5, TimeUnit.SECONDS));
+        assertEquals(0, count("coalesced"));
+    }
+
+    @Test
+    void callInsideTransaction_RunsOnItsOwn() throws Exception {
+        target.release.countDown();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            report.rows("2024-01");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertEquals(1, target.executions.get());
+        assertEquals(0, count("executed"));
+    }
+
+    private double count(String outcome) {
+        var counter = registry.find("billing.coalescing.calls").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private void awaitCoalesced(int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < callers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(callers, count("coalesced"));
+    }
+
+    private void awaitExecutions(int executions) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.executions.get() < executions && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(executions, target.executions.get());
+    }
+
+    static class Report {
+
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public List<String> rows(String month) {
+            executions.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (month.equals("fail")) {
+                throw new IllegalStateException("Report failed");
+            }
+            return List.of(month);
+        }
+    }
+}
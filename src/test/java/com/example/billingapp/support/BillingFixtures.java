@@ -0,0 +1,70 @@
+package com.example.billingapp.support;
+
+import com.example.billingapp.model.Customer;
+import com.example.billingapp.model.Invoice;
+import com.example.billingapp.model.Money;
+import com.example.billingapp.model.Payment;
+import com.example.billingapp.repository.CustomerRepository;
+import com.example.billingapp.repository.InvoiceRepository;
+import com.example.billingapp.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+
+/**
+ * Builds customers, invoices and payments with unique names, emails and transaction
+ * numbers, and flushes them so requests made afterwards see the rows.
+ */
+public class BillingFixtures {
+
+    private final CustomerRepository customerRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private int sequence;
+
+    public BillingFixtures(CustomerRepository customerRepository, InvoiceRepository invoiceRepository,
+                           PaymentRepository paymentRepository, EntityManager entityManager) {
+        this.customerRepository = customerRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Adds overdue, partly paid invoices for new customers and returns the first one.
+     */
+    public Invoice addOverdueInvoices(int count, int paymentsEach) {
+        Invoice first = null;
+        for (int i = 0; i < count; i++) {
+            int n = ++sequence;
+            Customer customer = new Customer();
+            customer.setName("Customer " + n);
+            customer.setEmail("customer" + n + "@example.com");
+            customer = customerRepository.save(customer);
+
+            Invoice invoice = new Invoice();
+            invoice.setCustomer(customer);
+            invoice.setAmount(Money.of("1000.00"));
+            invoice.setDueDate(LocalDate.now().minusDays(1));
+            invoice = invoiceRepository.save(invoice);
+            addPayments(invoice, paymentsEach);
+            if (first == null) {
+                first = invoice;
+            }
+        }
+        return first;
+    }
+
+    public void addPayments(Invoice invoice, int count) {
+        for (int i = 0; i < count; i++) {
+            Payment payment = new Payment();
+            payment.setInvoice(invoice);
+            payment.setAmount(Money.of("10.00"));
+            payment.setPaymentDate(LocalDate.now());
+            payment.setTransactionNumber("TXN-FIXTURE-" + ++sequence);
+            paymentRepository.save(payment);
+        }
+        entityManager.flush();
+    }
+}